@@ -9,6 +9,7 @@ import com.alumniportal.alumni.repository.UserRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -29,6 +30,7 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     @Override
+    @Transactional // the admin profile takes the admin's id, which needs the user managed
     public void run(String... args) throws Exception {
         // Create default roles if they don't exist
         createRoleIfNotFound("STUDENT");
@@ -64,7 +66,7 @@ public class DataInitializer implements CommandLineRunner {
 
             User savedAdmin = userRepository.save(adminUser);
 
-            // Create admin profile
+            // Create admin profile (takes the admin's id as its own)
             Profile adminProfile = new Profile();
             adminProfile.setUser(savedAdmin);
             adminProfile.setFirstName("WCE");
@@ -74,7 +76,6 @@ public class DataInitializer implements CommandLineRunner {
             profileRepository.save(adminProfile);
 
             savedAdmin.setProfile(adminProfile);
-            userRepository.save(savedAdmin);
 
             System.out.println("✅ Fixed admin user created: " + adminEmail);
         } else {
@@ -0,0 +1,35 @@
+package com.alumniportal.alumni.config;
+
+import com.alumniportal.alumni.service.PresenceService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Feeds every inbound STOMP frame from an authenticated session, heartbeats included,
+ * to the presence registry as activity.
+ */
+@Component
+public class PresenceInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    // Lazy: PresenceService sends through the messaging template that the WebSocket config builds
+    public PresenceInterceptor(@Lazy PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user != null) {
+            presenceService.touch(user.getName());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,192 @@
+package com.alumniportal.alumni.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Brings existing profiles rows in line with the shared-key mapping (Profile's id is its user's
+ * id, stored in user_id). ddl-auto=update never changes a primary key or an existing foreign key,
+ * so on a database created by the old mapping this:
+ *
+ * 1. refuses to go on while there are rows without a user or more than one profile per user, unless
+ *    app.migration.profiles.remove-duplicates is set: then those rows (all but each user's newest
+ *    profile) are copied to profiles_removed, their ids logged, and only then deleted,
+ * 2. replaces the generated id primary key with user_id,
+ * 3. recreates the user_id foreign key with ON DELETE CASCADE (the profile used to be deleted by
+ *    a cascade from User),
+ * 4. gives every user without a profile an empty one, since User.profile is a non-optional proxy.
+ *
+ * It runs while the context starts, before the EntityManagerFactory (so before ddl-auto touches
+ * the schema) and before the web server accepts requests; a failure aborts startup. On a fresh
+ * database there is nothing to migrate and Hibernate creates the new schema.
+ *
+ * MySQL commits every DDL statement on its own, so a run can stop half-way. Each step therefore
+ * checks the schema rather than a flag, and the next startup picks up where the last one stopped.
+ */
+@Component
+@Slf4j
+public class ProfileKeyMigration {
+
+    // Orphaned rows and all but the newest profile of each user
+    private static final String SURPLUS_WHERE = "WHERE user_id IS NULL OR id NOT IN " +
+            "(SELECT keep_id FROM (SELECT MAX(id) AS keep_id FROM profiles GROUP BY user_id) k)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean removeDuplicates;
+
+    public ProfileKeyMigration(JdbcTemplate jdbcTemplate,
+                               @Value("${app.migration.profiles.remove-duplicates:false}") boolean removeDuplicates) {
+        this.jdbcTemplate = jdbcTemplate;
+        // JPA's transaction manager needs the EntityManagerFactory, which waits for this
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(Objects.requireNonNull(jdbcTemplate.getDataSource())));
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    @PostConstruct
+    void migrate() throws Exception {
+        if (!tableExists("profiles") || !tableExists("users")) {
+            return;
+        }
+
+        int removed = 0;
+        if (hasLegacyIdColumn()) {
+            removed = removeSurplusRows();
+            // MySQL only allows AUTO_INCREMENT on a key column, so drop it before the key
+            jdbcTemplate.execute("ALTER TABLE profiles MODIFY id BIGINT NOT NULL");
+            if (primaryKeyColumns().contains("id")) {
+                jdbcTemplate.execute("ALTER TABLE profiles DROP PRIMARY KEY");
+            }
+            jdbcTemplate.execute("ALTER TABLE profiles DROP COLUMN id");
+        }
+        if (primaryKeyColumns().isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE profiles MODIFY user_id BIGINT NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE profiles ADD PRIMARY KEY (user_id)");
+            log.info("✅ Migrated profiles to user_id primary key ({} orphaned/duplicate rows moved to profiles_removed)",
+                    removed);
+        }
+
+        Map<String, Boolean> userKeys = userForeignKeys();
+        if (!userKeys.containsValue(true)) {
+            for (String name : userKeys.keySet()) {
+                jdbcTemplate.execute("ALTER TABLE profiles DROP FOREIGN KEY " + name);
+            }
+            jdbcTemplate.execute("ALTER TABLE profiles ADD CONSTRAINT fk_profiles_user " +
+                    "FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE");
+            log.info("✅ Recreated profiles.user_id foreign key with ON DELETE CASCADE");
+        }
+
+        int created = jdbcTemplate.update("INSERT INTO profiles (user_id, email, first_name, last_name, phone, " +
+                "about, batch, profile_photo, graduation_year, degree, branch, current_company, position) " +
+                "SELECT u.id, u.email, 'First Name', 'Last Name', '', '', '', '', '', '', '', '', '' FROM users u " +
+                "WHERE NOT EXISTS (SELECT 1 FROM profiles p WHERE p.user_id = u.id)");
+        if (created > 0) {
+            log.info("✅ Created {} default profiles for users without one", created);
+        }
+    }
+
+    private int removeSurplusRows() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM profiles " + SURPLUS_WHERE + " ORDER BY id", Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (!removeDuplicates) {
+            throw new IllegalStateException("profiles has " + ids.size() + " rows without a user or duplicating " +
+                    "another profile of the same user (ids " + ids + "). Resolve them by hand, or set " +
+                    "app.migration.profiles.remove-duplicates=true to move them to profiles_removed and migrate.");
+        }
+        // A copy first, so nothing is lost if the choice of which profile to keep was wrong. The
+        // table is created on its own (DDL commits); the copy and the delete commit together
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS profiles_removed LIKE profiles");
+        Integer removed = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("INSERT INTO profiles_removed SELECT * FROM profiles " + SURPLUS_WHERE);
+            return jdbcTemplate.update("DELETE FROM profiles " + SURPLUS_WHERE);
+        });
+        log.warn("⚠️ Moved {} orphaned/duplicate profiles to profiles_removed, ids {}", removed, ids);
+        return removed;
+    }
+
+    private boolean hasLegacyIdColumn() throws Exception {
+        return Boolean.TRUE.equals(JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), metaData -> {
+            // Scoped to the connection's catalog: MySQL reports every database's tables otherwise
+            try (ResultSet rs = metaData.getColumns(metaData.getConnection().getCatalog(), null,
+                    profilesTable(metaData), null)) {
+                while (rs.next()) {
+                    if ("id".equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private boolean tableExists(String table) throws Exception {
+        return Boolean.TRUE.equals(JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), metaData -> {
+            try (ResultSet rs = metaData.getTables(metaData.getConnection().getCatalog(), null,
+                    metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table, new String[]{"TABLE"})) {
+                return rs.next();
+            }
+        }));
+    }
+
+    private Set<String> primaryKeyColumns() throws Exception {
+        return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), metaData -> {
+            Set<String> columns = new HashSet<>();
+            try (ResultSet rs = metaData.getPrimaryKeys(metaData.getConnection().getCatalog(), null,
+                    profilesTable(metaData))) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+            return columns;
+        });
+    }
+
+    // Foreign key name -> whether it cascades deletes, for every key on profiles.user_id
+    private Map<String, Boolean> userForeignKeys() throws Exception {
+        return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), metaData -> {
+            Map<String, Boolean> keys = new LinkedHashMap<>();
+            try (ResultSet rs = metaData.getImportedKeys(metaData.getConnection().getCatalog(), null,
+                    profilesTable(metaData))) {
+                while (rs.next()) {
+                    if ("user_id".equalsIgnoreCase(rs.getString("FKCOLUMN_NAME"))) {
+                        keys.put(rs.getString("FK_NAME"),
+                                rs.getShort("DELETE_RULE") == DatabaseMetaData.importedKeyCascade);
+                    }
+                }
+            }
+            return keys;
+        });
+    }
+
+    private static String profilesTable(DatabaseMetaData metaData) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? "PROFILES" : "profiles";
+    }
+
+    /** Makes the EntityManagerFactory, and with it ddl-auto and every repository, wait for the migration. */
+    @Component
+    static class JpaWaitsForProfileKeyMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaWaitsForProfileKeyMigration() {
+            super(ProfileKeyMigration.class);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.alumniportal.alumni.config;
+
+import com.alumniportal.alumni.service.ChatRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Applies {@link ChatRateLimiter} to SEND frames from authenticated sessions. preSend runs on the
+ * WebSocket thread before the frame reaches the inbound executor, so a rejected frame costs no
+ * executor or DB work. A rejected frame is dropped and the session stays open (an exception here
+ * would become a STOMP ERROR frame, which closes the connection); the user gets a notice on
+ * /user/queue/errors instead, at most one per second.
+ */
+@Component
+@Slf4j
+public class RateLimitInterceptor implements ChannelInterceptor {
+
+    public static final String ERRORS_DESTINATION = "/queue/errors";
+
+    private final ChatRateLimiter chatRateLimiter;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Lazy: the messaging template is built by the WebSocket config this interceptor is part of
+    public RateLimitInterceptor(ChatRateLimiter chatRateLimiter, @Lazy SimpMessagingTemplate messagingTemplate) {
+        this.chatRateLimiter = chatRateLimiter;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SEND.equals(accessor.getCommand())) {
+            return message;
+        }
+        Principal user = accessor.getUser();
+        if (user == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (!chatRateLimiter.tryAcquire(user.getName(), destination)) {
+            log.debug("🚦 Throttled SEND to {} from user {}", destination, user.getName());
+            if (chatRateLimiter.tryAcquireNotice(user.getName())) {
+                notifyThrottled(user.getName(), destination);
+            }
+            return null;
+        }
+        return message;
+    }
+
+    private void notifyThrottled(String userId, String destination) {
+        try {
+            messagingTemplate.convertAndSendToUser(userId, ERRORS_DESTINATION, Map.of(
+                    "type", "RATE_LIMITED",
+                    "destination", destination == null ? "" : destination,
+                    "message", "Too many messages, slow down"));
+        } catch (Exception e) {
+            log.warn("⚠️ Could not send throttle notice to user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.alumniportal.alumni.config;
 
 import com.alumniportal.alumni.security.JwtAuthenticationFilter;
 import com.alumniportal.alumni.security.JwtUtil;
+import com.alumniportal.alumni.security.UserDetailsCache;
 import com.alumniportal.alumni.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,28 +30,31 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final UserDetailsCache userDetailsCache;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtUtil jwtUtil, UserDetailsCache userDetailsCache) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    // Raising the strength is safe: existing hashes still verify and are upgraded on next login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager() {
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         return new ProviderManager(provider);
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsCache);
 
         http
                 .csrf(csrf -> csrf.disable())
@@ -78,9 +83,14 @@ public class SecurityConfig {
                         .requestMatchers(new AntPathRequestMatcher("/api/chat/**"))
                         .hasAnyRole("STUDENT", "ALUMNI", "ADMIN")
 
+                        .requestMatchers(new AntPathRequestMatcher("/api/search/**"))
+                        .hasAnyRole("STUDENT", "ALUMNI", "ADMIN")
+
                         // ✅ Role-specific access
                         .requestMatchers(new AntPathRequestMatcher("/api/admin/**")).hasRole("ADMIN")
                         .requestMatchers(new AntPathRequestMatcher("/api/student/**")).hasRole("STUDENT")
+                        .requestMatchers(new AntPathRequestMatcher("/api/alumni/directory"))
+                        .hasAnyRole("STUDENT", "ALUMNI", "ADMIN")
                         .requestMatchers(new AntPathRequestMatcher("/api/alumni/**")).hasRole("ALUMNI")
 
                         // Everything else
@@ -1,9 +1,10 @@
 package com.alumniportal.alumni.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.alumniportal.alumni.entity.User;
+import com.alumniportal.alumni.repository.UserRepository;
+import com.alumniportal.alumni.security.JwtUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -17,11 +18,12 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
-    @Value("${jwt.secret:your-secret-key-here}")
-    private String jwtSecret;
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -36,12 +38,15 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 String token = authToken.substring(7);
 
                 try {
-                    Claims claims = Jwts.parser()
-                            .setSigningKey(jwtSecret)
-                            .parseClaimsJws(token)
-                            .getBody();
-
-                    String userId = claims.getSubject();
+                    // Verify with the same key that issued the token, then resolve the numeric user id
+                    // once per connection: chat frames are addressed with convertAndSendToUser(userId, ...)
+                    String email = jwtUtil.verify(token)
+                            .map(JwtUtil.TokenClaims::subject)
+                            .orElseThrow(() -> new IllegalArgumentException("invalid or expired token"));
+                    String userId = userRepository.findByEmail(email)
+                            .map(User::getId)
+                            .map(String::valueOf)
+                            .orElseThrow(() -> new IllegalArgumentException("unknown user " + email));
                     log.info("✅ JWT Valid - User ID: {}", userId);
 
                     // Create authentication with userId as principal
@@ -1,24 +1,56 @@
 package com.alumniportal.alumni.config;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 @Configuration
 @EnableWebSocketMessageBroker
-@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final PresenceInterceptor presenceInterceptor;
+    private final TaskScheduler heartbeatScheduler;
+
+    @Value("${app.chat.presence.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    // The scheduler is declared below; @Lazy defers resolving it until the broker starts
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+                           RateLimitInterceptor rateLimitInterceptor,
+                           PresenceInterceptor presenceInterceptor,
+                           @Lazy @Qualifier("heartbeatTaskScheduler") TaskScheduler heartbeatScheduler) {
+        this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.presenceInterceptor = presenceInterceptor;
+        this.heartbeatScheduler = heartbeatScheduler;
+    }
+
+    // Container-managed, so its thread is shut down with the context
+    @Bean
+    public ThreadPoolTaskScheduler heartbeatTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        return scheduler;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple in-memory broker
-        config.enableSimpleBroker("/topic", "/queue", "/user");
+        // Enable simple in-memory broker; heartbeats let dead sessions be detected for presence
+        config.enableSimpleBroker("/topic", "/queue", "/user")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(heartbeatScheduler);
 
         // Application destination prefix
         config.setApplicationDestinationPrefixes("/app");
@@ -41,7 +73,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        // Register authentication interceptor
-        registration.interceptors(webSocketAuthInterceptor);
+        // Register authentication interceptor, then per-user rate limits and presence tracking
+        registration.interceptors(webSocketAuthInterceptor, rateLimitInterceptor, presenceInterceptor);
     }
 }
@@ -0,0 +1,80 @@
+package com.alumniportal.alumni.controller;
+
+import com.alumniportal.alumni.service.AlumniSearchService;
+import com.alumniportal.alumni.service.AlumniSuggestionService;
+import com.alumniportal.alumni.service.CaptchaService;
+import com.alumniportal.alumni.service.LoginThrottleService;
+import com.alumniportal.alumni.service.PasswordHashingService;
+import com.alumniportal.alumni.service.ProfileSnapshotCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class AdminMetricsController {
+
+    private final PasswordHashingService passwordHashingService;
+    private final CaptchaService captchaService;
+    private final LoginThrottleService loginThrottleService;
+    private final ProfileSnapshotCache profileSnapshotCache;
+    private final AlumniSearchService alumniSearchService;
+    private final AlumniSuggestionService alumniSuggestionService;
+
+    public AdminMetricsController(PasswordHashingService passwordHashingService, CaptchaService captchaService,
+                                  LoginThrottleService loginThrottleService,
+                                  ProfileSnapshotCache profileSnapshotCache,
+                                  AlumniSearchService alumniSearchService,
+                                  AlumniSuggestionService alumniSuggestionService) {
+        this.passwordHashingService = passwordHashingService;
+        this.captchaService = captchaService;
+        this.loginThrottleService = loginThrottleService;
+        this.profileSnapshotCache = profileSnapshotCache;
+        this.alumniSearchService = alumniSearchService;
+        this.alumniSuggestionService = alumniSuggestionService;
+    }
+
+    /**
+     * Runtime counters of the authentication pipeline
+     */
+    @GetMapping("/auth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getAuthMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("passwordHashing", passwordHashingService.getStats());
+        metrics.put("captcha", captchaService.getStats());
+        metrics.put("loginThrottle", loginThrottleService.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Size and hit ratio of the profile snapshot cache
+     */
+    @GetMapping("/profile-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getProfileCacheMetrics() {
+        return ResponseEntity.ok(profileSnapshotCache.getStats());
+    }
+
+    /**
+     * Size of the alumni search index and average query time
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSearchMetrics() {
+        return ResponseEntity.ok(alumniSearchService.getStats());
+    }
+
+    /**
+     * Size of the suggestion model and hit ratio of the per-student suggestion cache
+     */
+    @GetMapping("/suggestions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSuggestionMetrics() {
+        return ResponseEntity.ok(alumniSuggestionService.getStats());
+    }
+}
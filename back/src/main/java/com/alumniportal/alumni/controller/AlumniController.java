@@ -1,10 +1,13 @@
 package com.alumniportal.alumni.controller;
 
+import com.alumniportal.alumni.dto.AlumniDirectoryFilter;
+import com.alumniportal.alumni.dto.AlumniDirectoryPage;
 import com.alumniportal.alumni.dto.ProfileDTO;
 import com.alumniportal.alumni.entity.Job;
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.repository.JobRepository;
 import com.alumniportal.alumni.repository.UserRepository;
+import com.alumniportal.alumni.service.AlumniDirectoryService;
 import com.alumniportal.alumni.service.ProfileService;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,13 +26,37 @@ public class AlumniController {
     private final ProfileService profileService;
     private final UserRepository userRepository;
     private final JobRepository jobRepository;
+    private final AlumniDirectoryService alumniDirectoryService;
 
     public AlumniController(ProfileService profileService,
                             UserRepository userRepository,
-                            JobRepository jobRepository) {
+                            JobRepository jobRepository,
+                            AlumniDirectoryService alumniDirectoryService) {
         this.profileService = profileService;
         this.userRepository = userRepository;
         this.jobRepository = jobRepository;
+        this.alumniDirectoryService = alumniDirectoryService;
+    }
+
+    /**
+     * Paged alumni directory, filtered by branch, batch, graduation year, company and position
+     */
+    @GetMapping("/directory")
+    @PreAuthorize("hasAnyRole('STUDENT', 'ALUMNI', 'ADMIN')")
+    public ResponseEntity<AlumniDirectoryPage> getDirectory(
+            @RequestParam(value = "branch", required = false) String branch,
+            @RequestParam(value = "batch", required = false) String batch,
+            @RequestParam(value = "graduationYear", required = false) String graduationYear,
+            @RequestParam(value = "company", required = false) String company,
+            @RequestParam(value = "position", required = false) String position,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            AlumniDirectoryFilter filter = new AlumniDirectoryFilter(branch, batch, graduationYear, company, position);
+            return ResponseEntity.ok(alumniDirectoryService.search(filter, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -4,10 +4,16 @@ import com.alumniportal.alumni.dto.AuthRequest;
 import com.alumniportal.alumni.dto.AuthResponse;
 import com.alumniportal.alumni.dto.RegisterRequest;
 import com.alumniportal.alumni.dto.DirectResetPasswordRequest;
+import com.alumniportal.alumni.exception.ServiceBusyException;
 import com.alumniportal.alumni.service.AuthService;
 import com.alumniportal.alumni.service.CaptchaService;
+import com.alumniportal.alumni.service.LoginThrottleService;
 import com.alumniportal.alumni.service.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
@@ -15,16 +21,20 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:3000")
+@Slf4j
 public class AuthController {
 
     private final AuthService authService;
     private final CaptchaService captchaService;
     private final PasswordResetService passwordResetService;
+    private final LoginThrottleService loginThrottleService;
 
-    public AuthController(AuthService authService, CaptchaService captchaService, PasswordResetService passwordResetService) {
+    public AuthController(AuthService authService, CaptchaService captchaService, PasswordResetService passwordResetService,
+                          LoginThrottleService loginThrottleService) {
         this.authService = authService;
         this.captchaService = captchaService;
         this.passwordResetService = passwordResetService;
+        this.loginThrottleService = loginThrottleService;
     }
 
     @PostMapping("/register")
@@ -44,7 +54,7 @@ public class AuthController {
         System.out.println("Captcha token: " + req.getCaptcha());
 
         // Verify CAPTCHA
-        boolean captchaValid = captchaService.verifyCaptcha(req.getCaptcha());
+        boolean captchaValid = captchaService.verifyCaptcha(req.getCaptcha(), req.getEmail());
         System.out.println("Captcha valid? " + captchaValid);
         if (!captchaValid) {
             return ResponseEntity.badRequest().body("Captcha verification failed. Are you a robot?");
@@ -54,6 +64,9 @@ public class AuthController {
             AuthResponse response = authService.register(req);
             System.out.println("Registration successful for email: " + req.getEmail());
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            log.warn("⚠️ Registration rejected, password hashing busy: {}", e.getMessage());
+            return busy(e);
         } catch (Exception e) {
             System.out.println("Registration failed: " + e.getMessage());
             // Return more specific error messages
@@ -71,14 +84,20 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest req) {
+    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest req, HttpServletRequest request) {
+        // Throttle first: a refused attempt costs no CAPTCHA call, DB lookup or BCrypt work
+        LoginThrottleService.Decision decision = loginThrottleService.tryAcquire(req.getEmail(), request.getRemoteAddr());
+        if (!decision.allowed()) {
+            return tooManyAttempts(decision);
+        }
+
         // Debug log: login attempt
         System.out.println("=== LOGIN ATTEMPT ===");
         System.out.println("Email: " + req.getEmail());
         System.out.println("Captcha token: " + req.getCaptcha());
 
         // Verify CAPTCHA
-        boolean captchaValid = captchaService.verifyCaptcha(req.getCaptcha());
+        boolean captchaValid = captchaService.verifyCaptcha(req.getCaptcha(), req.getEmail());
         System.out.println("Captcha valid? " + captchaValid);
         if (!captchaValid) {
             return ResponseEntity.badRequest().body("Captcha verification failed. Are you a robot?");
@@ -86,9 +105,14 @@ public class AuthController {
 
         try {
             AuthResponse response = authService.login(req);
+            loginThrottleService.onSuccess(req.getEmail(), request.getRemoteAddr());
             System.out.println("Login successful for email: " + req.getEmail());
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            log.warn("⚠️ Login rejected, password hashing busy: {}", e.getMessage());
+            return busy(e);
         } catch (Exception e) {
+            loginThrottleService.onFailure(req.getEmail(), request.getRemoteAddr());
             System.out.println("Login failed: " + e.getMessage());
             // Return more specific error messages
             String errorMessage = e.getMessage();
@@ -108,6 +132,9 @@ public class AuthController {
         try {
             passwordResetService.resetPasswordDirect(request.getEmail(), request.getNewPassword());
             return ResponseEntity.ok("Password has been reset successfully. You can now login with your new password.");
+        } catch (ServiceBusyException e) {
+            log.warn("⚠️ Password reset rejected, password hashing busy: {}", e.getMessage());
+            return busy(e);
         } catch (Exception e) {
             System.out.println("Direct password reset failed: " + e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -116,7 +143,12 @@ public class AuthController {
 
     // Verify user exists for password reset
     @GetMapping("/verify-user")
-    public ResponseEntity<?> verifyUser(@RequestParam String email) {
+    public ResponseEntity<?> verifyUser(@RequestParam String email, HttpServletRequest request) {
+        LoginThrottleService.Decision decision = loginThrottleService.tryAcquireLookup(request.getRemoteAddr());
+        if (!decision.allowed()) {
+            return tooManyAttempts(decision);
+        }
+
         try {
             boolean userExists = passwordResetService.verifyUserExists(email);
             if (userExists) {
@@ -128,4 +160,17 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Error verifying user: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<String> tooManyAttempts(LoginThrottleService.Decision decision) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                .body("Too many attempts. Please wait a few minutes and try again.");
+    }
+
+    // Password hashing pool is saturated: ask the client to retry instead of holding the request
+    private ResponseEntity<String> busy(ServiceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(e.getMessage());
+    }
+}
@@ -1,23 +1,37 @@
 package com.alumniportal.alumni.controller;
 
+import com.alumniportal.alumni.dto.ChatHistoryPage;
 import com.alumniportal.alumni.dto.ChatMessageDTO;
+import com.alumniportal.alumni.dto.ChatMessageRequest;
+import com.alumniportal.alumni.dto.ChatSyncPage;
+import com.alumniportal.alumni.dto.InboxEntryDTO;
+import com.alumniportal.alumni.dto.TypingRequest;
 import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.entity.User;
+import com.alumniportal.alumni.exception.ResourceNotFoundException;
+import com.alumniportal.alumni.repository.UserRepository;
+import com.alumniportal.alumni.service.ChatArchiveService;
+import com.alumniportal.alumni.service.ChatDeliveryTracker;
+import com.alumniportal.alumni.service.ChatFanoutService;
+import com.alumniportal.alumni.service.ChatRateLimiter;
 import com.alumniportal.alumni.service.ChatService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.alumniportal.alumni.service.ChatWriteBehindQueue;
+import com.alumniportal.alumni.service.ConversationInboxService;
+import com.alumniportal.alumni.service.OfflineDeliveryQueue;
+import com.alumniportal.alumni.service.PresenceService;
+import com.alumniportal.alumni.service.TypingIndicatorService;
+import com.alumniportal.alumni.util.ChatPayloadCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,102 +41,128 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ChatController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    // A client acks each node's pending batch (at most app.chat.offline.max-pending-per-user ids)
+    private static final int MAX_PENDING_ACK = 1000;
+
+    private final ChatFanoutService chatFanoutService;
     private final ChatService chatService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatWriteBehindQueue chatWriteBehindQueue;
+    private final ChatDeliveryTracker chatDeliveryTracker;
+    private final ConversationInboxService conversationInboxService;
+    private final ChatArchiveService chatArchiveService;
+    private final OfflineDeliveryQueue offlineDeliveryQueue;
+    private final PresenceService presenceService;
+    private final TypingIndicatorService typingIndicatorService;
+    private final ChatRateLimiter chatRateLimiter;
+    private final ChatPayloadCodec chatPayloadCodec;
+    private final UserRepository userRepository;
 
     @MessageMapping("/sendMessage")
-    public void handleChatMessage(@Payload Object payload, Principal principal) {
+    public void handleChatMessage(@Payload byte[] payload, Principal principal) {
         log.info("🔥 === WEBSOCKET MESSAGE RECEIVED ===");
 
         try {
-            ChatMessageDTO chatMessageDTO;
-            String payloadString;
-
-            // Handle different payload types
-            if (payload instanceof byte[]) {
-                payloadString = new String((byte[]) payload, StandardCharsets.UTF_8);
-            } else if (payload instanceof String) {
-                payloadString = (String) payload;
-            } else {
-                log.error("❌ Unknown payload type: {}", payload.getClass());
+            // Decode the frame bytes directly into the typed request
+            ChatMessageRequest request = chatPayloadCodec.decodeMessage(payload);
+            if (!request.isValid()) {
+                log.error("❌ Invalid chat payload: senderId, receiverId and content are required");
                 return;
             }
 
-            // Parse JSON to Map
-            Map<String, Object> payloadMap = objectMapper.readValue(payloadString, Map.class);
-
-            // Convert to DTO
-            chatMessageDTO = new ChatMessageDTO();
-            chatMessageDTO.setSenderId(Long.valueOf(payloadMap.get("senderId").toString()));
-            chatMessageDTO.setReceiverId(Long.valueOf(payloadMap.get("receiverId").toString()));
-            chatMessageDTO.setContent(payloadMap.get("content").toString());
-
             log.info("📤 Message - From: {} To: {} Content: {}",
-                    chatMessageDTO.getSenderId(),
-                    chatMessageDTO.getReceiverId(),
-                    chatMessageDTO.getContent());
+                    request.senderId(),
+                    request.receiverId(),
+                    request.content());
 
             // Convert to Entity and save
             ChatMessage message = ChatMessage.builder()
-                    .senderId(chatMessageDTO.getSenderId())
-                    .receiverId(chatMessageDTO.getReceiverId())
-                    .content(chatMessageDTO.getContent())
+                    .senderId(request.senderId())
+                    .receiverId(request.receiverId())
+                    .content(request.content())
                     .build();
 
             log.info("💾 Saving message to database...");
-            ChatMessage savedMessage = chatService.saveMessage(message);
+            // Frames go out only once the message is durable (immediately, or after its batch commits)
+            chatWriteBehindQueue.submit(message)
+                    .thenAccept(this::dispatchSavedMessage)
+                    .exceptionally(ex -> {
+                        log.error("❌ ERROR SAVING MESSAGE: {}", ex.getMessage(), ex);
+                        return null;
+                    });
 
-            // Convert to DTO for sending
-            ChatMessageDTO savedDTO = ChatMessageDTO.fromEntity(savedMessage);
+        } catch (Exception e) {
+            log.error("❌ ERROR PROCESSING MESSAGE: {}", e.getMessage(), e);
+        }
+    }
 
-            // Send to receiver FIRST for immediate delivery
-            String receiverDestination = "/user/" + chatMessageDTO.getReceiverId() + "/queue/messages";
-            log.info("📤 Sending to receiver: {}", receiverDestination);
+    @MessageMapping("/typing")
+    public void handleTyping(@Payload byte[] payload, Principal principal) {
+        if (principal == null) {
+            return;
+        }
+        try {
+            // Ephemeral: throttled and relayed in memory, never persisted
+            TypingRequest request = chatPayloadCodec.decodeTyping(payload);
+            if (request.isValid()) {
+                typingIndicatorService.onTyping(Long.parseLong(principal.getName()), request.receiverId(), request.typing());
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Invalid typing frame: {}", e.getMessage());
+        }
+    }
 
-            messagingTemplate.convertAndSendToUser(
-                    chatMessageDTO.getReceiverId().toString(),
-                    "/queue/messages",
-                    savedDTO
-            );
+    private void dispatchSavedMessage(ChatMessage savedMessage) {
+        // Convert to DTO for sending
+        ChatMessageDTO savedDTO = ChatMessageDTO.fromEntity(savedMessage);
 
-            // Send confirmation back to sender SECOND
-            String senderDestination = "/user/" + chatMessageDTO.getSenderId() + "/queue/messages";
-            log.info("📤 Sending confirmation to sender: {}", senderDestination);
+        String receiverId = savedMessage.getReceiverId().toString();
+        String senderId = savedMessage.getSenderId().toString();
 
-            messagingTemplate.convertAndSendToUser(
-                    chatMessageDTO.getSenderId().toString(),
-                    "/queue/messages",
-                    savedDTO
-            );
+        if (!chatFanoutService.isOnline(receiverId)) {
+            // Nobody would receive the frame; hold the id until the receiver connects
+            log.info("📭 Receiver {} offline, queueing message {}", receiverId, savedMessage.getId());
+            offlineDeliveryQueue.enqueue(savedMessage.getReceiverId(), savedMessage.getId());
+            chatFanoutService.sendToUser(senderId, "/queue/messages", savedDTO);
+            return;
+        }
 
-            log.info("✅ MESSAGE DELIVERED TO BOTH USERS");
+        // Receiver FIRST for immediate delivery, then the confirmation back to the sender;
+        // the DTO is serialized once and the same bytes go to both
+        log.info("📤 Sending message {} to receiver {} and sender {}", savedMessage.getId(), receiverId, senderId);
 
-            // Mark as delivered after sending (async)
-            CompletableFuture.runAsync(() -> {
-                try {
-                    Thread.sleep(100); // Small delay to ensure message is received
-                    chatService.markMessageAsDelivered(savedMessage.getId(), savedMessage.getReceiverId());
-                } catch (Exception e) {
-                    log.error("❌ Error marking as delivered: {}", e.getMessage());
-                }
-            });
+        chatFanoutService.sendToUsers(List.of(receiverId, senderId), "/queue/messages", savedDTO);
 
-        } catch (Exception e) {
-            log.error("❌ ERROR PROCESSING MESSAGE: {}", e.getMessage(), e);
-        }
+        log.info("✅ MESSAGE DELIVERED TO BOTH USERS");
+
+        // Delivery is recorded in memory and flushed in batches by the tracker
+        chatDeliveryTracker.recordDelivered(savedMessage.getId(), savedMessage.getReceiverId());
     }
 
     // Add new endpoint for message status updates
     @PostMapping("/markDelivered/{messageId}/{receiverId}")
     public ResponseEntity<Map<String, String>> markAsDelivered(
             @PathVariable("messageId") Long messageId,
-            @PathVariable("receiverId") Long receiverId) {
+            @PathVariable("receiverId") Long receiverId,
+            Principal principal) {
 
         log.info("📬 Marking message {} as delivered to {}", messageId, receiverId);
 
         try {
-            chatService.markMessageAsDelivered(messageId, receiverId);
+            // Only the receiver may acknowledge, and only a message that was sent to them
+            Long callerId = principal == null ? null : userRepository.findByEmail(principal.getName())
+                    .map(User::getId)
+                    .orElse(null);
+            if (!receiverId.equals(callerId)) {
+                return ResponseEntity.status(403).build();
+            }
+            if (!chatService.isAddressedTo(messageId, receiverId)) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // Client acknowledgement: flushed with the next delivery batch
+            if (!chatDeliveryTracker.recordDelivered(messageId, receiverId)) {
+                return ResponseEntity.status(503).build();
+            }
             Map<String, String> response = new HashMap<>();
             response.put("message", "Message marked as delivered");
             return ResponseEntity.ok(response);
@@ -132,6 +172,36 @@ public class ChatController {
         }
     }
 
+    // Client acknowledgement of a /queue/pending-messages batch; only then are they delivered
+    @PostMapping("/pending/ack")
+    public ResponseEntity<Map<String, Object>> acknowledgePending(
+            @RequestBody List<Long> messageIds,
+            Principal principal) {
+
+        try {
+            Long callerId = principal == null ? null : userRepository.findByEmail(principal.getName())
+                    .map(User::getId)
+                    .orElse(null);
+            if (callerId == null) {
+                return ResponseEntity.status(403).build();
+            }
+            if (messageIds == null || messageIds.size() > MAX_PENDING_ACK) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            int recorded = offlineDeliveryQueue.acknowledge(callerId, messageIds);
+            log.info("📬 User {} acknowledged {} pending messages ({} recorded as delivered)",
+                    callerId, messageIds.size(), recorded);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("delivered", recorded);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("❌ Error acknowledging pending messages: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/conversation/{user1}/{user2}")
     public ResponseEntity<List<ChatMessageDTO>> getConversation(
             @PathVariable("user1") Long user1,
@@ -154,6 +224,75 @@ public class ChatController {
         }
     }
 
+    @GetMapping("/conversation/{user1}/{user2}/history")
+    public ResponseEntity<ChatHistoryPage> getConversationHistory(
+            @PathVariable("user1") Long user1,
+            @PathVariable("user2") Long user2,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+
+        log.info("📖 REST: Fetching history page between {} and {} (before={}, after={}, size={})",
+                user1, user2, before, after, size);
+
+        try {
+            return ResponseEntity.ok(chatService.getConversationPage(user1, user2, before, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ResourceNotFoundException e) {
+            log.warn("⚠️ {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("❌ Error fetching conversation history: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/sync")
+    public ResponseEntity<ChatSyncPage> syncConversation(
+            @RequestParam("conversationId") String conversationId,
+            @RequestParam(value = "afterSeq", defaultValue = "0") long afterSeq,
+            @RequestParam(value = "size", defaultValue = "200") int size) {
+
+        log.info("🔄 REST: Sync {} after seq {} (size={})", conversationId, afterSeq, size);
+
+        try {
+            return ResponseEntity.ok(chatService.syncConversation(conversationId, afterSeq, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("❌ Error syncing conversation: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/presence")
+    public ResponseEntity<List<PresenceService.PresenceUpdate>> getPresence(
+            @RequestParam("userIds") List<Long> userIds) {
+        try {
+            return ResponseEntity.ok(presenceService.getPresence(userIds));
+        } catch (Exception e) {
+            log.error("❌ Error fetching presence: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/inbox")
+    public ResponseEntity<List<InboxEntryDTO>> getInbox(
+            @RequestParam("userId") Long userId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        log.info("📥 REST: Fetching inbox for user {} (page={}, size={})", userId, page, size);
+
+        try {
+            return ResponseEntity.ok(conversationInboxService.getInbox(userId, page, size));
+        } catch (Exception e) {
+            log.error("❌ Error fetching inbox: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/markAsRead/{senderId}/{receiverId}")
     public ResponseEntity<Map<String, String>> markAsRead(
             @PathVariable("senderId") Long senderId,
@@ -190,6 +329,18 @@ public class ChatController {
         }
     }
 
+    @GetMapping("/unreadCount/{userId}/conversations")
+    public ResponseEntity<Map<String, Long>> getUnreadCountsByConversation(@PathVariable("userId") Long userId) {
+        log.info("🔔 Getting per-conversation unread counts for user {}", userId);
+
+        try {
+            return ResponseEntity.ok(chatService.getUnreadCountsByConversation(userId));
+        } catch (Exception e) {
+            log.error("❌ Error getting unread counts: {}", e.getMessage(), e);
+            return ResponseEntity.ok(new HashMap<>());
+        }
+    }
+
     @GetMapping("/debug/status")
     public ResponseEntity<Map<String, Object>> getDebugStatus() {
         Map<String, Object> status = new HashMap<>();
@@ -199,6 +350,13 @@ public class ChatController {
             status.put("conversation_15_19_count", testConversation.size());
             status.put("databaseStatus", "OK");
             status.put("websocketBroker", "ENABLED");
+            status.put("deliveryTracker", chatDeliveryTracker.getStats());
+            status.put("writeBehindQueueDepth", chatWriteBehindQueue.getQueueDepth());
+            status.put("archive", chatArchiveService.getStats());
+            status.put("offlineQueue", offlineDeliveryQueue.getStats());
+            status.put("presence", presenceService.getStats());
+            status.put("typing", typingIndicatorService.getStats());
+            status.put("rateLimit", chatRateLimiter.getStats());
 
             log.info("🔍 Debug Status - Messages: {}", testConversation.size());
 
@@ -231,7 +389,7 @@ public class ChatController {
             ChatMessageDTO savedDTO = ChatMessageDTO.fromEntity(savedMessage);
 
             // Send via WebSocket
-            messagingTemplate.convertAndSendToUser(
+            chatFanoutService.sendToUser(
                     receiverId.toString(),
                     "/queue/messages",
                     savedDTO
@@ -1,5 +1,6 @@
 package com.alumniportal.alumni.controller;
 
+import com.alumniportal.alumni.dto.AlumniSuggestion;
 import com.alumniportal.alumni.entity.Connection;
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.service.ConnectionService;
@@ -54,10 +55,11 @@ public class ConnectionController {
         return connectionService.getAlumniConnectionsDTO(alumniId);
     }
 
-    // Suggested Alumni list for Student
+    // Suggested Alumni for Student, best match first
     @GetMapping("/suggested/{studentId}")
-    public List<User> getSuggestedAlumni(@PathVariable Long studentId) {
-        return connectionService.getSuggestedAlumni(studentId);
+    public List<AlumniSuggestion> getSuggestedAlumni(@PathVariable Long studentId,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        return connectionService.getSuggestedAlumni(studentId, limit);
     }
 
     // Fetch all alumni (used by StudentNetwork.jsx)
@@ -0,0 +1,35 @@
+package com.alumniportal.alumni.controller;
+
+import com.alumniportal.alumni.dto.AlumniSearchPage;
+import com.alumniportal.alumni.service.AlumniSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class SearchController {
+
+    private final AlumniSearchService alumniSearchService;
+
+    public SearchController(AlumniSearchService alumniSearchService) {
+        this.alumniSearchService = alumniSearchService;
+    }
+
+    /**
+     * Ranked full-text search over alumni names, company, position, degree, branch and about text
+     */
+    @GetMapping("/alumni")
+    @PreAuthorize("hasAnyRole('STUDENT', 'ALUMNI', 'ADMIN')")
+    public ResponseEntity<AlumniSearchPage> searchAlumni(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(alumniSearchService.search(query, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
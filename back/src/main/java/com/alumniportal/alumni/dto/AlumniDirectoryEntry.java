@@ -0,0 +1,25 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One directory row: only the columns the listing shows. The photo and "about" text are left out,
+// clients load them from the full profile.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlumniDirectoryEntry {
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String branch;
+    private String batch;
+    private String graduationYear;
+    private String degree;
+    private String currentCompany;
+    private String position;
+}
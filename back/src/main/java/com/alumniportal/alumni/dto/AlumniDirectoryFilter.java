@@ -0,0 +1,6 @@
+package com.alumniportal.alumni.dto;
+
+// Directory filters; null or blank means "any". branch, batch and graduationYear match exactly,
+// company and position match as a prefix.
+public record AlumniDirectoryFilter(String branch, String batch, String graduationYear,
+                                    String company, String position) {}
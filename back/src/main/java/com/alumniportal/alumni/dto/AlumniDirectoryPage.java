@@ -0,0 +1,25 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlumniDirectoryPage {
+    // Sorted by last name, first name, then user id
+    private List<AlumniDirectoryEntry> entries;
+
+    private int page;
+    private int size;
+
+    // Matches across all pages for the same filters
+    private long totalElements;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlumniSearchPage {
+    // The query terms actually searched: lowercased, without stop words
+    private String query;
+
+    // Best match first
+    private List<AlumniDirectoryEntry> entries;
+
+    private int page;
+    private int size;
+
+    private long totalHits;
+
+    private boolean hasMore;
+}
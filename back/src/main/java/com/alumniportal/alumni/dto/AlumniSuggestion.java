@@ -0,0 +1,29 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One suggested alumnus for a student, with the score it was ranked by and the number of
+// students who share a connection with the student and are connected to this alumnus
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlumniSuggestion {
+    private Long userId;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String profilePhoto;
+    private String branch;
+    private String batch;
+    private String graduationYear;
+    private String degree;
+    private String currentCompany;
+    private String position;
+
+    private int score;
+    private int mutualConnections;
+}
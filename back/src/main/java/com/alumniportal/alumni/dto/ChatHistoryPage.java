@@ -0,0 +1,24 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryPage {
+    // Messages in chronological order (oldest first)
+    private List<ChatMessageDTO> messages;
+
+    // Cursors for the next request: pass oldestId as "before" or newestId as "after"
+    private Long oldestId;
+    private Long newestId;
+
+    // True when more messages exist beyond this page in the requested direction
+    private boolean hasMore;
+}
@@ -24,6 +24,7 @@ public class ChatMessageDTO {
 
     private ChatMessage.MessageStatus status;
     private String conversationId;
+    private Long seq;
     private String senderName;
     private String receiverName;
 
@@ -36,6 +37,7 @@ public class ChatMessageDTO {
                 .timestamp(message.getTimestamp())
                 .status(message.getStatus())
                 .conversationId(message.getConversationId())
+                .seq(message.getSeq())
                 .build();
     }
 }
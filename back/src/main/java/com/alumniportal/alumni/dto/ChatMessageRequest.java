@@ -0,0 +1,12 @@
+package com.alumniportal.alumni.dto;
+
+/**
+ * Inbound /app/sendMessage frame. Primitive ids so decoding does not box;
+ * a missing id decodes to 0 and is rejected by {@link #isValid()}.
+ */
+public record ChatMessageRequest(long senderId, long receiverId, String content) {
+
+    public boolean isValid() {
+        return senderId > 0 && receiverId > 0 && content != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.alumniportal.alumni.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSyncPage {
+    private String conversationId;
+
+    // Messages with seq > afterSeq, in seq order
+    private List<ChatMessageDTO> messages;
+
+    // Pass as afterSeq on the next call; equals the request's afterSeq when nothing was returned
+    private long nextAfterSeq;
+
+    // Newest seq in the conversation; the client is in sync once nextAfterSeq reaches it
+    private long latestSeq;
+
+    private boolean hasMore;
+}
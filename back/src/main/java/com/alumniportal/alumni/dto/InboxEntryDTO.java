@@ -0,0 +1,42 @@
+package com.alumniportal.alumni.dto;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.entity.Conversation;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxEntryDTO {
+    private String conversationId;
+    private Long otherUserId;
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private ChatMessage.MessageStatus lastMessageStatus;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastMessageAt;
+
+    private int unreadCount;
+
+    public static InboxEntryDTO fromEntity(Conversation conversation, Long userId) {
+        return InboxEntryDTO.builder()
+                .conversationId(conversation.getConversationId())
+                .otherUserId(conversation.getOtherUserId(userId))
+                .lastMessageId(conversation.getLastMessageId())
+                .lastSenderId(conversation.getLastSenderId())
+                .lastMessagePreview(conversation.getLastMessagePreview())
+                .lastMessageStatus(conversation.getLastMessageStatus())
+                .lastMessageAt(conversation.getLastMessageAt())
+                .unreadCount(conversation.getUnreadFor(userId))
+                .build();
+    }
+}
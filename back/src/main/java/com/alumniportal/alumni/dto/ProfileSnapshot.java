@@ -0,0 +1,24 @@
+package com.alumniportal.alumni.dto;
+
+import com.alumniportal.alumni.entity.Profile;
+import com.alumniportal.alumni.entity.User;
+
+// Immutable copy of a user's profile as cached by ProfileSnapshotCache; accountEmail is the login
+// email, email the contact email shown on the profile.
+public record ProfileSnapshot(Long userId, String accountEmail, String firstName, String lastName,
+                              String email, String phone, String batch, String about, String profilePhoto,
+                              String graduationYear, String degree, String branch,
+                              String currentCompany, String position) {
+
+    public static ProfileSnapshot of(User user, Profile profile) {
+        return new ProfileSnapshot(user.getId(), user.getEmail(), profile.getFirstName(), profile.getLastName(),
+                profile.getEmail(), profile.getPhone(), profile.getBatch(), profile.getAbout(),
+                profile.getProfilePhoto(), profile.getGraduationYear(), profile.getDegree(), profile.getBranch(),
+                profile.getCurrentCompany(), profile.getPosition());
+    }
+
+    public ProfileDTO toDTO() {
+        return new ProfileDTO(userId, firstName, lastName, email, phone, batch, about, graduationYear,
+                degree, branch, currentCompany, position, profilePhoto);
+    }
+}
@@ -0,0 +1,12 @@
+package com.alumniportal.alumni.dto;
+
+/**
+ * Inbound /app/typing frame. The sender is taken from the STOMP session principal,
+ * so only the counterpart and the typing state are sent.
+ */
+public record TypingRequest(long receiverId, boolean typing) {
+
+    public boolean isValid() {
+        return receiverId > 0;
+    }
+}
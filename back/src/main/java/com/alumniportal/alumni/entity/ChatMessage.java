@@ -9,9 +9,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "chat_messages", indexes = {
         @Index(name = "idx_conversation_id", columnList = "conversation_id"),
+        @Index(name = "idx_conversation_timestamp_id", columnList = "conversation_id, timestamp, id"),
+        @Index(name = "idx_conversation_seq", columnList = "conversation_id, seq", unique = true),
         @Index(name = "idx_sender_receiver", columnList = "sender_id, receiver_id"),
         @Index(name = "idx_timestamp", columnList = "timestamp"),
-        @Index(name = "idx_status", columnList = "status")
+        @Index(name = "idx_status", columnList = "status"),
+        @Index(name = "idx_receiver_status", columnList = "receiver_id, status")
 })
 @Getter
 @Setter
@@ -45,6 +48,10 @@ public class ChatMessage {
     @Column(name = "conversation_id", nullable = false)
     private String conversationId;
 
+    // Per-conversation order, assigned by ConversationSequenceService; null until sequenced
+    @Column(name = "seq")
+    private Long seq;
+
     @Column(name = "delivered_at")
     private LocalDateTime deliveredAt;
 
@@ -1,11 +1,13 @@
 package com.alumniportal.alumni.entity;
 
+import com.alumniportal.alumni.service.ConnectionSuggestionListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "connections")
+@EntityListeners(ConnectionSuggestionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,66 @@
+package com.alumniportal.alumni.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized inbox row, one per conversation, maintained by ChatService on every write and
+ * status change. user1Id is always the smaller id (same order as conversationId).
+ * Unread counts here mean "not yet READ" by that participant.
+ */
+@Entity
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_conversations_user1_last", columnList = "user1_id, last_message_at"),
+        @Index(name = "idx_conversations_user2_last", columnList = "user2_id, last_message_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Conversation {
+
+    @Id
+    @Column(name = "conversation_id")
+    private String conversationId;
+
+    @Column(name = "user1_id", nullable = false)
+    private Long user1Id;
+
+    @Column(name = "user2_id", nullable = false)
+    private Long user2Id;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_preview")
+    private String lastMessagePreview;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_message_status")
+    private ChatMessage.MessageStatus lastMessageStatus;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "user1_unread", nullable = false)
+    private int user1Unread;
+
+    @Column(name = "user2_unread", nullable = false)
+    private int user2Unread;
+
+    public Long getOtherUserId(Long userId) {
+        return user1Id.equals(userId) ? user2Id : user1Id;
+    }
+
+    public int getUnreadFor(Long userId) {
+        return user1Id.equals(userId) ? user1Unread : user2Unread;
+    }
+}
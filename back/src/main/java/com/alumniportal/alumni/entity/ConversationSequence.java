@@ -0,0 +1,25 @@
+package com.alumniportal.alumni.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-conversation message sequence counter. lastSeq is the seq of the newest message in the
+ * conversation; allocation locks only this row, so conversations never contend with each other.
+ */
+@Entity
+@Table(name = "conversation_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversationSequence {
+
+    @Id
+    @Column(name = "conversation_id")
+    private String conversationId;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+}
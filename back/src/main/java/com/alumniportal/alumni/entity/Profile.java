@@ -3,14 +3,24 @@ package com.alumniportal.alumni.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
-@Table(name = "profiles")
+@Table(name = "profiles", indexes = {
+        // Alumni directory filters and its name ordering
+        @Index(name = "idx_profiles_branch_year", columnList = "branch, graduation_year"),
+        @Index(name = "idx_profiles_batch", columnList = "batch"),
+        @Index(name = "idx_profiles_graduation_year", columnList = "graduation_year"),
+        @Index(name = "idx_profiles_company", columnList = "current_company"),
+        @Index(name = "idx_profiles_position", columnList = "position"),
+        @Index(name = "idx_profiles_name", columnList = "last_name, first_name")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // ADD THIS LINE
 public class Profile {
 
+    // Shared primary key: a profile's id is its user's id (column user_id), see user below
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "first_name")
@@ -38,8 +48,10 @@ public class Profile {
     @Column(name = "profile_photo")
     private String profilePhoto;
 
-    @OneToOne
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonIgnore // Keep this, it's good for preventing circular references
     private User user;
 
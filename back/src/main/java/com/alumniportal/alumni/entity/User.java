@@ -1,11 +1,15 @@
 package com.alumniportal.alumni.entity;
 
+import com.alumniportal.alumni.security.UserCacheInvalidationListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidationListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,10 +33,19 @@ public class User {
     @JsonIgnoreProperties("users") // ADD THIS
     private Role role;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
+    // Joined on the shared primary key (our id is the profile's), so Hibernate can hand out a proxy
+    // without querying profiles; every user has a profile (see ProfileKeyMigration).
+    // JOIN FETCH it where profiles are needed. The profile row goes with the user via ON DELETE CASCADE.
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnoreProperties("user") // ADD THIS
     private Profile profile;
 
+    // Written in batches by PresenceService
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
     // ✅ Add this helper method
     public String getName() {
         if (profile != null) {
@@ -1,6 +1,7 @@
 package com.alumniportal.alumni.repository;
 
 import com.alumniportal.alumni.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -27,23 +30,86 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     List<ChatMessage> findByConversationIdOrderByTimestampAsc(
             @Param("conversationId") String conversationId);
 
-    @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE " +
-            "cm.receiverId = :receiverId AND cm.status = :status")
-    long countByReceiverIdAndStatus(
-            @Param("receiverId") Long receiverId,
-            @Param("status") ChatMessage.MessageStatus status);
+    // Keyset pages over idx_conversation_timestamp_id: newest first, then before/after a cursor.
+    // Rows already copied to the archive (seq <= archivedThrough) are skipped before the LIMIT
+    @Query("SELECT cm FROM ChatMessage cm WHERE " +
+            "cm.conversationId = :conversationId AND (cm.seq IS NULL OR cm.seq > :archivedThrough) " +
+            "ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<ChatMessage> findLatestInConversation(
+            @Param("conversationId") String conversationId,
+            @Param("archivedThrough") long archivedThrough,
+            Pageable pageable);
+
+    @Query("SELECT cm FROM ChatMessage cm WHERE " +
+            "cm.conversationId = :conversationId AND (cm.seq IS NULL OR cm.seq > :archivedThrough) " +
+            "ORDER BY cm.timestamp ASC, cm.id ASC")
+    List<ChatMessage> findOldestInConversation(
+            @Param("conversationId") String conversationId,
+            @Param("archivedThrough") long archivedThrough,
+            Pageable pageable);
 
     @Query("SELECT cm FROM ChatMessage cm WHERE " +
-            "cm.senderId = :senderId AND cm.receiverId = :receiverId AND cm.status = 'SENT'")
-    List<ChatMessage> findUnreadMessages(
+            "cm.conversationId = :conversationId AND cm.timestamp <= :timestamp AND " +
+            "(cm.timestamp < :timestamp OR cm.id < :id) AND (cm.seq IS NULL OR cm.seq > :archivedThrough) " +
+            "ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<ChatMessage> findInConversationBefore(
+            @Param("conversationId") String conversationId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            @Param("archivedThrough") long archivedThrough,
+            Pageable pageable);
+
+    @Query("SELECT cm FROM ChatMessage cm WHERE " +
+            "cm.conversationId = :conversationId AND cm.timestamp >= :timestamp AND " +
+            "(cm.timestamp > :timestamp OR cm.id > :id) AND (cm.seq IS NULL OR cm.seq > :archivedThrough) " +
+            "ORDER BY cm.timestamp ASC, cm.id ASC")
+    List<ChatMessage> findInConversationAfter(
+            @Param("conversationId") String conversationId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            @Param("archivedThrough") long archivedThrough,
+            Pageable pageable);
+
+    // Resync range scan on (conversation_id, seq)
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.conversationId = :conversationId " +
+            "AND cm.seq > :afterSeq ORDER BY cm.seq ASC")
+    List<ChatMessage> findInConversationAfterSeq(
+            @Param("conversationId") String conversationId,
+            @Param("afterSeq") Long afterSeq,
+            Pageable pageable);
+
+    @Query("SELECT MAX(cm.id) FROM ChatMessage cm WHERE " +
+            "cm.senderId = :senderId AND cm.receiverId = :receiverId AND cm.status <> 'READ'")
+    Long findLatestUnreadMessageId(
             @Param("senderId") Long senderId,
             @Param("receiverId") Long receiverId);
 
-    @Modifying
+    // Set-based read receipt: one UPDATE for every unread message up to and including upToId
+    @Modifying(clearAutomatically = true)
     @Transactional
-    @Query("UPDATE ChatMessage cm SET cm.status = 'READ' WHERE " +
-            "cm.senderId = :senderId AND cm.receiverId = :receiverId AND cm.status = 'SENT'")
-    void markMessagesAsRead(
+    @Query("UPDATE ChatMessage cm SET cm.status = 'READ', cm.readAt = :readAt WHERE " +
+            "cm.senderId = :senderId AND cm.receiverId = :receiverId AND " +
+            "cm.status <> 'READ' AND cm.id <= :upToId")
+    int markMessagesAsRead(
             @Param("senderId") Long senderId,
-            @Param("receiverId") Long receiverId);
-}
\ No newline at end of file
+            @Param("receiverId") Long receiverId,
+            @Param("upToId") Long upToId,
+            @Param("readAt") LocalDateTime readAt);
+
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.id IN :ids AND cm.status = 'SENT'")
+    List<ChatMessage> findSentMessagesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based delivery transition for a batch of acknowledged ids
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE ChatMessage cm SET cm.status = 'DELIVERED', cm.deliveredAt = :deliveredAt WHERE " +
+            "cm.id IN :ids AND cm.status = 'SENT'")
+    int markMessagesAsDelivered(
+            @Param("ids") Collection<Long> ids,
+            @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    // Unread (not READ) counts per conversation, used to load and re-check one user's in-memory counters
+    @Query("SELECT cm.conversationId, COUNT(cm) FROM ChatMessage cm WHERE " +
+            "cm.receiverId = :receiverId AND cm.status <> 'READ' GROUP BY cm.conversationId")
+    List<Object[]> countUnreadByConversation(@Param("receiverId") Long receiverId);
+}
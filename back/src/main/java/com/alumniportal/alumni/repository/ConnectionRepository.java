@@ -13,8 +13,12 @@ public interface ConnectionRepository extends JpaRepository<Connection, Long> {
     // Find connection between a specific student and alumni
     Optional<Connection> findByStudentAndAlumni(User student, User alumni);
 
-    // Find connections by student and status
-    List<Connection> findByStudentAndStatus(User student, Connection.ConnectionStatus status);
+    // Find connections by student and status; both users are serialized (with their names), so fetch them here
+    @Query("SELECT c FROM Connection c JOIN FETCH c.student s JOIN FETCH s.role LEFT JOIN FETCH s.profile " +
+           "JOIN FETCH c.alumni a JOIN FETCH a.role LEFT JOIN FETCH a.profile " +
+           "WHERE c.student = :student AND c.status = :status")
+    List<Connection> findByStudentAndStatus(@Param("student") User student,
+                                            @Param("status") Connection.ConnectionStatus status);
 
     // Find connections by alumni and status
     List<Connection> findByAlumniAndStatus(User alumni, Connection.ConnectionStatus status);
@@ -23,7 +27,9 @@ public interface ConnectionRepository extends JpaRepository<Connection, Long> {
     List<Connection> findByStudent(User student);
 
     // Find accepted connections where the user is either student or alumni - FIXED METHOD
-    @Query("SELECT c FROM Connection c WHERE (c.student = :user OR c.alumni = :user) AND c.status = 'ACCEPTED'")
+    @Query("SELECT c FROM Connection c JOIN FETCH c.student s JOIN FETCH s.role LEFT JOIN FETCH s.profile " +
+           "JOIN FETCH c.alumni a JOIN FETCH a.role LEFT JOIN FETCH a.profile " +
+           "WHERE (c.student = :user OR c.alumni = :user) AND c.status = 'ACCEPTED'")
     List<Connection> findAcceptedConnectionsByUser(@Param("user") User user);
 
     // Find pending requests for a specific alumni
@@ -34,6 +40,6 @@ public interface ConnectionRepository extends JpaRepository<Connection, Long> {
     boolean existsByStudentAndAlumni(User student, User alumni);
 
     // Fixed profile fetching with proper field names
-    @Query("SELECT c FROM Connection c JOIN FETCH c.student s JOIN FETCH s.profile p WHERE c.alumni.id = :alumniId AND c.status = 'PENDING'")
+    @Query("SELECT c FROM Connection c JOIN FETCH c.student s JOIN FETCH s.role JOIN FETCH s.profile p WHERE c.alumni.id = :alumniId AND c.status = 'PENDING'")
     List<Connection> findPendingRequestsForAlumniWithStudentDetails(@Param("alumniId") Long alumniId);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.alumniportal.alumni.repository;
+
+import com.alumniportal.alumni.entity.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, String> {
+
+    // [user1Id, user2Id] of every conversation involving any of the given users
+    @Query("SELECT c.user1Id, c.user2Id FROM Conversation c WHERE c.user1Id IN :userIds OR c.user2Id IN :userIds")
+    List<Object[]> findParticipantsForUsers(@Param("userIds") Collection<Long> userIds);
+}
@@ -3,7 +3,10 @@ package com.alumniportal.alumni.repository;
 import com.alumniportal.alumni.entity.Profile;
 import com.alumniportal.alumni.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ProfileRepository extends JpaRepository<Profile, Long> {
@@ -12,4 +15,7 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
 
     // Optional: find by userId directly
     Optional<Profile> findByUserId(Long userId);
+
+    @Query("SELECT p FROM Profile p JOIN FETCH p.user u JOIN FETCH u.role r WHERE r.name = :roleName")
+    List<Profile> findAllByUserRoleName(@Param("roleName") String roleName);
 }
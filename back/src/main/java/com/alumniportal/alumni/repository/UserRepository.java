@@ -5,16 +5,37 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Optional<User> findByEmail(String email);
+    // Role fetched in the same statement (it is EAGER, which a plain query would load separately)
+    @Query("SELECT u FROM User u JOIN FETCH u.role WHERE u.email = :email")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    // User, role and profile in one statement (User.profile is lazy otherwise)
+    @Query("SELECT u FROM User u JOIN FETCH u.role LEFT JOIN FETCH u.profile WHERE u.email = :email")
+    Optional<User> findWithProfileByEmail(@Param("email") String email);
+
+    @Query("SELECT u FROM User u JOIN FETCH u.role LEFT JOIN FETCH u.profile WHERE u.id = :id")
+    Optional<User> findWithProfileById(@Param("id") Long id);
+
+    @Query("SELECT u FROM User u JOIN FETCH u.role LEFT JOIN FETCH u.profile WHERE u.id IN :ids")
+    List<User> findWithProfileByIdIn(@Param("ids") Collection<Long> ids);
 
     boolean existsByEmail(String email);
 
-    // NEW: Fetch users by role name
-    @Query("SELECT u FROM User u WHERE u.role.name = :roleName")
+    // NEW: Fetch users by role name (profiles included, callers serialize them)
+    @Query("SELECT u FROM User u JOIN FETCH u.role r LEFT JOIN FETCH u.profile WHERE r.name = :roleName")
     List<User> findByRoleName(@Param("roleName") String roleName);
+
+    // [email, roleName] for request authentication; one query, no entity or profile load
+    @Query("SELECT u.email, r.name FROM User u JOIN u.role r WHERE u.email = :email")
+    List<Object[]> findEmailAndRoleByEmail(@Param("email") String email);
+
+    // [id, lastSeen] pairs for presence lookups
+    @Query("SELECT u.id, u.lastSeen FROM User u WHERE u.id IN :ids")
+    List<Object[]> findLastSeenByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -4,24 +4,24 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Optional;
 
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsCache userDetailsCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsCache userDetailsCache) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
@@ -42,75 +42,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String header = request.getHeader("Authorization");
 
-        String contentType = request.getContentType();
-        boolean isMultipart = contentType != null && contentType.startsWith("multipart/form-data");
-
-        System.out.println("=== JWT FILTER START ===");
-        System.out.println("Request URI: " + request.getRequestURI());
-        System.out.println("Content-Type: " + contentType);
-        System.out.println("Is Multipart: " + isMultipart);
-        System.out.println("Authorization header: " + header);
-
-        // For multipart requests, we need to handle authentication differently
-        if (isMultipart) {
-            System.out.println("🔄 Multipart request detected - processing authentication");
-        }
+        // Never log the header or the token: either one is a usable credential
+        log.debug("JWT filter: {} {} (content type {})", request.getMethod(), request.getRequestURI(),
+                request.getContentType());
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            System.out.println("Token received: " + token);
 
             try {
-                if (jwtUtil.validateToken(token)) {
-                    System.out.println("✅ Token is valid");
-                    String email = jwtUtil.getEmailFromToken(token);
-                    String role = jwtUtil.getRoleFromToken(token);
-
-                    System.out.println("JWT Filter - Email: " + email);
-                    System.out.println("JWT Filter - Role from token: " + role);
+                // One verification per request; repeat requests with the same token hit JwtUtil's cache
+                Optional<JwtUtil.TokenClaims> claims = jwtUtil.verify(token);
+                if (claims.isPresent()) {
+                    String email = claims.get().subject();
+                    log.debug("JWT filter: valid token for {} (role {})", email, claims.get().role());
 
                     if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        System.out.println("Loading user details for: " + email);
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                        // Signature and expiry come from the token; existence and the current role from
+                        // the short-lived cache, so a role change applies without waiting for the token to expire
+                        Optional<UserDetails> userDetails = userDetailsCache.find(email);
+                        if (userDetails.isPresent()) {
+                            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                                    userDetails.get(), null, userDetails.get().getAuthorities());
+
+                            SecurityContextHolder.getContext().setAuthentication(auth);
 
-                        String authority;
-                        if (role != null && !role.startsWith("ROLE_")) {
-                            authority = "ROLE_" + role;
+                            log.debug("JWT filter: authenticated {} with {}", email, userDetails.get().getAuthorities());
                         } else {
-                            authority = role;
+                            log.debug("JWT filter: account no longer exists: {}", email);
                         }
-
-                        System.out.println("JWT Filter - Final authority: " + authority);
-
-                        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(authority));
-
-                        UsernamePasswordAuthenticationToken auth =
-                                new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
-
-                        SecurityContextHolder.getContext().setAuthentication(auth);
-
-                        System.out.println("✅ JWT Filter - Authentication set successfully for: " + email);
                     } else {
-                        System.out.println("❌ Email is null or authentication already exists");
+                        log.debug("JWT filter: no subject in token, or request already authenticated");
                     }
                 } else {
-                    System.out.println("❌ Token validation failed");
-                    System.out.println("⚠️ Continuing request without authentication");
+                    log.debug("JWT filter: invalid or expired token, continuing unauthenticated");
                 }
             } catch (Exception e) {
-                System.out.println("❌ JWT Filter - Exception: " + e.getMessage());
-                e.printStackTrace();
-                System.out.println("⚠️ Continuing request despite JWT exception");
+                log.debug("JWT filter: token check failed, continuing unauthenticated: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("❌ No Bearer token found");
-            // For achievement endpoints, we need authentication
-            if (request.getRequestURI().startsWith("/api/achievements/")) {
-                System.out.println("⚠️ Achievement endpoint requires auth but no token provided");
-            }
+            log.debug("JWT filter: no bearer token on {}", request.getRequestURI());
         }
 
-        System.out.println("=== JWT FILTER END ===");
         filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.alumniportal.alumni.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,20 +10,43 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and parser are built once. A token is verified at most once into an immutable
+ * {@link TokenClaims}; recently verified tokens are cached under the SHA-256 of the token text, so
+ * a forged or altered token never matches a cached entry. Entries are dropped when their exp
+ * passes, and the cache sheds expired (then arbitrary) entries when it reaches max-size.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final long expirationMs;
+    private final int cacheMaxSize;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    @Value("${app.jwt.expiration-ms}")
-    private long expirationMs;
+    private final ConcurrentHashMap<TokenHash, TokenClaims> verified = new ConcurrentHashMap<>();
+    private final AtomicBoolean shrinking = new AtomicBoolean();
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(@Value("${app.jwt.secret}") String jwtSecret,
+                   @Value("${app.jwt.expiration-ms}") long expirationMs,
+                   @Value("${app.jwt.cache.max-size:10000}") int cacheMaxSize) {
+        this.expirationMs = expirationMs;
+        this.cacheMaxSize = Math.max(0, cacheMaxSize);
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     /**
@@ -39,44 +64,111 @@ public class JwtUtil {
                 .claim("role", roleWithPrefix)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Validate JWT token
+     * Verify signature and expiry once and return the claims the application uses,
+     * or empty if the token is invalid or expired.
      */
-    public boolean validateToken(String token) {
+    public Optional<TokenClaims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        TokenHash key = TokenHash.of(token);
+        TokenClaims cached = verified.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return Optional.of(cached);
+            }
+            verified.remove(key, cached);
+            return Optional.empty();
+        }
+
+        TokenClaims claims;
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception ex) {
-            return false;
+            claims = TokenClaims.from(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        if (claims.expiresAt() != null && cacheMaxSize > 0) {
+            if (verified.size() >= cacheMaxSize) {
+                shrink();
+            }
+            verified.put(key, claims);
         }
+        return Optional.of(claims);
+    }
+
+    /**
+     * Validate JWT token
+     */
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     /**
      * Extract email from token
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return verifyOrThrow(token).subject();
     }
 
     /**
      * Extract role from token
      */
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        Object role = claims.get("role");
-        return role != null ? role.toString() : null;
+        return verifyOrThrow(token).role();
+    }
+
+    private TokenClaims verifyOrThrow(String token) {
+        return verify(token).orElseThrow(() -> new JwtException("Invalid or expired JWT token"));
+    }
+
+    private void shrink() {
+        if (!shrinking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            verified.values().removeIf(TokenClaims::isExpired);
+            // Still full of live tokens: drop about a tenth; those users just pay one parse again
+            Iterator<TokenHash> it = verified.keySet().iterator();
+            for (int excess = verified.size() - cacheMaxSize * 9 / 10; excess > 0 && it.hasNext(); excess--) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            shrinking.set(false);
+        }
+    }
+
+    /** The verified claims of a token; role is null if the token carries none. */
+    public record TokenClaims(String subject, String role, Instant expiresAt) {
+
+        static TokenClaims from(Claims claims) {
+            Object role = claims.get("role");
+            Date expiration = claims.getExpiration();
+            return new TokenClaims(claims.getSubject(), role != null ? role.toString() : null,
+                    expiration != null ? expiration.toInstant() : null);
+        }
+
+        boolean isExpired() {
+            return expiresAt != null && !Instant.now().isBefore(expiresAt);
+        }
+    }
+
+    // First 128 bits of SHA-256(token); the cache never holds the token itself
+    private record TokenHash(long high, long low) {
+
+        static TokenHash of(String token) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+                ByteBuffer buffer = ByteBuffer.wrap(digest);
+                return new TokenHash(buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
     }
 }
@@ -0,0 +1,39 @@
+package com.alumniportal.alumni.security;
+
+import com.alumniportal.alumni.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops a user from {@link UserDetailsCache} whenever the User row is updated or deleted, which
+ * covers password resets and role changes from any code path. The entry is removed right away and
+ * again after commit, so a concurrent request cannot re-cache the pre-commit row.
+ * Hibernate creates this listener through Spring while building the EntityManagerFactory.
+ */
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    // Lazy: the cache needs UserRepository, which needs the EntityManagerFactory being built
+    public UserCacheInvalidationListener(@Lazy UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        String email = user.getEmail();
+        userDetailsCache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
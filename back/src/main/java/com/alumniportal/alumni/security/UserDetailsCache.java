@@ -0,0 +1,89 @@
+package com.alumniportal.alumni.security;
+
+import com.alumniportal.alumni.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Short-lived cache of the account facts request authentication needs: that the user still exists
+ * and their current role. A miss costs one projection query (users join roles); the entity,
+ * its profile and the password hash are never loaded. Entries expire after ttl-ms and are
+ * invalidated when the User row changes (see {@link UserCacheInvalidationListener}).
+ *
+ * Login still goes through CustomUserDetailsService, which always reads the password from the DB.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean shrinking = new AtomicBoolean();
+
+    public UserDetailsCache(UserRepository userRepository,
+                            @Value("${app.auth.user-cache.ttl-ms:60000}") long ttlMs,
+                            @Value("${app.auth.user-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMs = Math.max(0, ttlMs);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /** The user's current authorities (no credentials), or empty if the account no longer exists. */
+    public Optional<UserDetails> find(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && now - entry.loadedAt() < ttlMs) {
+            return Optional.of(entry.details());
+        }
+
+        List<Object[]> rows = userRepository.findEmailAndRoleByEmail(email);
+        if (rows.isEmpty()) {
+            entries.remove(email);
+            return Optional.empty();
+        }
+        String roleName = (String) rows.get(0)[1];
+        String authority = roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
+        UserDetails details = new User((String) rows.get(0)[0], "", List.of(new SimpleGrantedAuthority(authority)));
+
+        if (entries.size() >= maxSize) {
+            shrink(now);
+        }
+        entries.put(email, new Entry(details, now));
+        return Optional.of(details);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            entries.remove(email);
+        }
+    }
+
+    private void shrink(long now) {
+        if (!shrinking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(e -> now - e.loadedAt() >= ttlMs);
+            Iterator<String> it = entries.keySet().iterator();
+            for (int excess = entries.size() - maxSize * 9 / 10; excess > 0 && it.hasNext(); excess--) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            shrinking.set(false);
+        }
+    }
+
+    private record Entry(UserDetails details, long loadedAt) {}
+}
@@ -0,0 +1,97 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.AlumniDirectoryEntry;
+import com.alumniportal.alumni.dto.AlumniDirectoryFilter;
+import com.alumniportal.alumni.dto.AlumniDirectoryPage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paged alumni directory. Filtering, sorting and paging happen in SQL and only the directory
+ * columns are read, so a page costs one indexed query plus one count, whatever the user table size.
+ * Only the filters actually given are added to the WHERE clause, so each combination can use
+ * the matching profiles index.
+ */
+@Service
+@Slf4j
+public class AlumniDirectoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String FROM_WHERE =
+            " FROM users u JOIN roles r ON r.id = u.role_id JOIN profiles p ON p.user_id = u.id" +
+            " WHERE r.name = 'ALUMNI'";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT u.id, p.first_name, p.last_name, u.email, p.branch, p.batch, p.graduation_year," +
+            " p.degree, p.current_company, p.position";
+
+    private static final String ORDER_BY = " ORDER BY p.last_name, p.first_name, u.id";
+
+    private static final RowMapper<AlumniDirectoryEntry> ENTRY_MAPPER = (rs, rowNum) -> new AlumniDirectoryEntry(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlumniDirectoryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public AlumniDirectoryPage search(AlumniDirectoryFilter filter, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+
+        StringBuilder where = new StringBuilder(FROM_WHERE);
+        List<Object> args = new ArrayList<>();
+        addEquals(where, args, "p.branch", filter.branch());
+        addEquals(where, args, "p.batch", filter.batch());
+        addEquals(where, args, "p.graduation_year", filter.graduationYear());
+        addPrefix(where, args, "p.current_company", filter.company());
+        addPrefix(where, args, "p.position", filter.position());
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, Long.class, args.toArray());
+        long totalElements = total == null ? 0 : total;
+
+        List<AlumniDirectoryEntry> entries = List.of();
+        long offset = (long) page * pageSize;
+        if (offset < totalElements) {
+            List<Object> pageArgs = new ArrayList<>(args);
+            pageArgs.add(pageSize);
+            pageArgs.add(offset);
+            entries = jdbcTemplate.query(SELECT_COLUMNS + where + ORDER_BY + " LIMIT ? OFFSET ?",
+                    ENTRY_MAPPER, pageArgs.toArray());
+        }
+
+        log.debug("📇 Directory page {} ({} of {} matches) for {}", page, entries.size(), totalElements, filter);
+        return AlumniDirectoryPage.builder()
+                .entries(entries)
+                .page(page)
+                .size(pageSize)
+                .totalElements(totalElements)
+                .hasMore(offset + entries.size() < totalElements)
+                .build();
+    }
+
+    private static void addEquals(StringBuilder where, List<Object> args, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            where.append(" AND ").append(column).append(" = ?");
+            args.add(value.trim());
+        }
+    }
+
+    // Prefix LIKE can use the column index; wildcards typed by the user are matched literally
+    private static void addPrefix(StringBuilder where, List<Object> args, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            where.append(" AND ").append(column).append(" LIKE ? ESCAPE '!'");
+            args.add(value.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+    }
+}
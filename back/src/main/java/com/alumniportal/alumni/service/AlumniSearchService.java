@@ -0,0 +1,440 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.AlumniDirectoryEntry;
+import com.alumniportal.alumni.dto.AlumniSearchPage;
+import com.alumniportal.alumni.entity.Profile;
+import com.alumniportal.alumni.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text alumni search over an in-memory inverted index of the name, company, position,
+ * degree, branch and "about" fields. A query never touches the database.
+ *
+ * Each alumnus gets a dense doc id; every term maps to a posting list of parallel int arrays
+ * (doc ids, sorted, and field-weighted term frequencies). Query words are ANDed, the last one
+ * also matches as a prefix so results follow the user's typing, and hits are ranked by the sum
+ * of weight * idf over the matched terms.
+ *
+ * The index is loaded once the application is ready and then kept current by
+ * {@link #onProfileSaved}, which ProfileService and AuthService call after every profile write.
+ * Writes made while the initial load runs are replayed onto the loaded index.
+ */
+@Service
+@Slf4j
+public class AlumniSearchService {
+
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private static final int MAX_QUERY_TERMS = 8;
+    // Terms a prefix may expand to; "a" alone would otherwise walk a big part of the dictionary
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    // Keeps a long "about" text that repeats a word from outranking a name match
+    private static final int MAX_TERM_WEIGHT = 32;
+
+    private static final int NAME_WEIGHT = 8;
+    private static final int COMPANY_WEIGHT = 4;
+    private static final int POSITION_WEIGHT = 4;
+    private static final int DEGREE_WEIGHT = 2;
+    private static final int BRANCH_WEIGHT = 2;
+    private static final int ABOUT_WEIGHT = 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "from", "in", "is", "of", "on", "or", "the", "to", "with");
+
+    private static final String LOAD_SQL =
+            "SELECT u.id, p.first_name, p.last_name, u.email, p.branch, p.batch, p.graduation_year," +
+            " p.degree, p.current_company, p.position, p.about" +
+            " FROM users u JOIN roles r ON r.id = u.role_id JOIN profiles p ON p.user_id = u.id" +
+            " WHERE r.name = 'ALUMNI'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Index index = new Index();
+    // Writes seen while the initial load runs, by user id; null values are removals. Guarded by lock
+    private Map<Long, IndexedAlumnus> pendingWhileLoading;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    public AlumniSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingWhileLoading = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index loaded = new Index();
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                loaded.put(new IndexedAlumnus(new AlumniDirectoryEntry(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                        rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10)),
+                        rs.getString(11)));
+            });
+        } catch (Exception e) {
+            log.error("❌ Error loading alumni search index: {}", e.getMessage(), e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWhileLoading.forEach((userId, alumnus) -> {
+                if (alumnus == null) {
+                    loaded.remove(userId);
+                } else {
+                    loaded.put(alumnus);
+                }
+            });
+            pendingWhileLoading = null;
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("🔎 Alumni search index loaded: {} alumni, {} terms in {} ms",
+                loaded.liveDocs, loaded.postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reindexes a just-saved profile. Profiles of users who are not alumni are removed, so a
+     * role change can never leave a stale hit behind.
+     */
+    public void onProfileSaved(User user, Profile profile) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        boolean alumni = user.getRole() != null && "ALUMNI".equals(user.getRole().getName());
+        IndexedAlumnus alumnus = alumni && profile != null ? IndexedAlumnus.of(user, profile) : null;
+
+        lock.writeLock().lock();
+        try {
+            if (alumnus == null) {
+                index.remove(user.getId());
+            } else {
+                index.put(alumnus);
+            }
+            if (pendingWhileLoading != null) {
+                pendingWhileLoading.put(user.getId(), alumnus);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        updates.incrementAndGet();
+    }
+
+    public AlumniSearchPage search(String query, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        long start = System.nanoTime();
+
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        List<AlumniDirectoryEntry> entries = List.of();
+        int totalHits = 0;
+        long offset = (long) page * pageSize;
+        if (!terms.isEmpty()) {
+            lock.readLock().lock();
+            try {
+                long[] ranked = index.rank(terms);
+                totalHits = ranked.length;
+                if (offset < totalHits) {
+                    int end = (int) Math.min(totalHits, offset + pageSize);
+                    entries = new ArrayList<>(end - (int) offset);
+                    for (int i = (int) offset; i < end; i++) {
+                        entries.add(index.docs[Index.docOf(ranked[i])].entry());
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        searches.incrementAndGet();
+        searchNanos.addAndGet(System.nanoTime() - start);
+        log.debug("🔎 Alumni search '{}' page {}: {} of {} hits", query, page, entries.size(), totalHits);
+        return AlumniSearchPage.builder()
+                .query(String.join(" ", terms))
+                .entries(entries)
+                .page(page)
+                .size(pageSize)
+                .totalHits(totalHits)
+                .hasMore(offset + entries.size() < totalHits)
+                .build();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("alumni", index.liveDocs);
+            stats.put("terms", index.postings.size());
+            stats.put("postings", index.postingCount);
+            stats.put("loading", pendingWhileLoading != null);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long count = searches.get();
+        stats.put("searches", count);
+        stats.put("avgSearchMicros", count == 0 ? 0 : searchNanos.get() / 1000 / count);
+        stats.put("updates", updates.get());
+        return stats;
+    }
+
+    // Lowercased runs of letters and digits; single letters and stop words carry no signal
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if ((token.length() > 1 || Character.isDigit(token.charAt(0))) && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private record IndexedAlumnus(AlumniDirectoryEntry entry, String about) {
+
+        static IndexedAlumnus of(User user, Profile profile) {
+            return new IndexedAlumnus(new AlumniDirectoryEntry(user.getId(), profile.getFirstName(),
+                    profile.getLastName(), user.getEmail(), profile.getBranch(), profile.getBatch(),
+                    profile.getGraduationYear(), profile.getDegree(), profile.getCurrentCompany(),
+                    profile.getPosition()), profile.getAbout());
+        }
+
+        Map<String, Integer> termWeights() {
+            Map<String, Integer> weights = new HashMap<>();
+            addField(weights, entry.getFirstName(), NAME_WEIGHT);
+            addField(weights, entry.getLastName(), NAME_WEIGHT);
+            addField(weights, entry.getCurrentCompany(), COMPANY_WEIGHT);
+            addField(weights, entry.getPosition(), POSITION_WEIGHT);
+            addField(weights, entry.getDegree(), DEGREE_WEIGHT);
+            addField(weights, entry.getBranch(), BRANCH_WEIGHT);
+            addField(weights, about, ABOUT_WEIGHT);
+            return weights;
+        }
+
+        private static void addField(Map<String, Integer> weights, String text, int weight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, weight, (a, b) -> Math.min(MAX_TERM_WEIGHT, a + b));
+            }
+        }
+    }
+
+    /** Not thread-safe; AlumniSearchService guards it with its read/write lock. */
+    private static final class Index {
+
+        // Sorted, so a prefix is a contiguous range of terms
+        final TreeMap<String, PostingList> postings = new TreeMap<>();
+        final Map<Long, Integer> docByUserId = new HashMap<>();
+        // Slots of removed alumni stay null; a returning user id gets its old slot back
+        IndexedAlumnus[] docs = new IndexedAlumnus[256];
+        String[][] docTerms = new String[256][];
+        int docCount;
+        int liveDocs;
+        long postingCount;
+
+        void put(IndexedAlumnus alumnus) {
+            Long userId = alumnus.entry().getUserId();
+            Integer existing = docByUserId.get(userId);
+            int doc;
+            if (existing != null) {
+                doc = existing;
+                removeTerms(doc);
+            } else {
+                doc = docCount++;
+                if (doc == docs.length) {
+                    docs = Arrays.copyOf(docs, doc * 2);
+                    docTerms = Arrays.copyOf(docTerms, doc * 2);
+                }
+                docByUserId.put(userId, doc);
+            }
+            if (docs[doc] == null) {
+                liveDocs++;
+            }
+
+            Map<String, Integer> weights = alumnus.termWeights();
+            String[] terms = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> term : weights.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new PostingList()).put(doc, term.getValue());
+                terms[i++] = term.getKey();
+            }
+            postingCount += terms.length;
+            docs[doc] = alumnus;
+            docTerms[doc] = terms;
+        }
+
+        void remove(Long userId) {
+            Integer doc = docByUserId.get(userId);
+            if (doc == null || docs[doc] == null) {
+                return;
+            }
+            removeTerms(doc);
+            docs[doc] = null;
+            liveDocs--;
+        }
+
+        private void removeTerms(int doc) {
+            String[] terms = docTerms[doc];
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null && list.remove(doc) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            postingCount -= terms.length;
+            docTerms[doc] = null;
+        }
+
+        /**
+         * Docs matching every term, best first, each packed as score bits (high word) and
+         * inverted doc id (low word) so one primitive sort orders by score, then by doc id.
+         */
+        long[] rank(List<String> terms) {
+            float[] scores = new float[docCount];
+            // Number of leading query terms each doc has matched; a doc that missed one is out
+            byte[] matched = new byte[docCount];
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                boolean last = t == terms.size() - 1;
+                PostingList exact = postings.get(term);
+                if (exact != null) {
+                    accumulate(exact, t, 1f, scores, matched);
+                }
+                if (last) {
+                    SortedMap<String, PostingList> expansions = postings.subMap(term, false, term + Character.MAX_VALUE, true);
+                    int expanded = 0;
+                    for (PostingList list : expansions.values()) {
+                        if (expanded++ == MAX_PREFIX_TERMS) {
+                            break;
+                        }
+                        accumulate(list, t, PREFIX_MATCH_FACTOR, scores, matched);
+                    }
+                }
+            }
+
+            int required = terms.size();
+            int hits = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (matched[doc] == required) {
+                    hits++;
+                }
+            }
+            long[] ranked = new long[hits];
+            int i = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (matched[doc] == required) {
+                    // Positive floats order like their bit patterns
+                    ranked[i++] = ((long) Float.floatToIntBits(scores[doc]) << 32) | (~doc & 0xFFFFFFFFL);
+                }
+            }
+            Arrays.sort(ranked);
+            for (int lo = 0, hi = ranked.length - 1; lo < hi; lo++, hi--) {
+                long swap = ranked[lo];
+                ranked[lo] = ranked[hi];
+                ranked[hi] = swap;
+            }
+            return ranked;
+        }
+
+        static int docOf(long ranked) {
+            return ~(int) ranked;
+        }
+
+        private void accumulate(PostingList list, int termIndex, float factor, float[] scores, byte[] matched) {
+            float idf = (float) Math.log(1 + (double) liveDocs / list.size);
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                // Counts the doc for this term once, however many of the term's expansions it has
+                if (matched[doc] == termIndex) {
+                    matched[doc]++;
+                } else if (matched[doc] != termIndex + 1) {
+                    continue;
+                }
+                scores[doc] += factor * list.weights[i] * idf;
+            }
+        }
+    }
+
+    /** Doc ids in ascending order with the term's weight in each, as two parallel int arrays. */
+    private static final class PostingList {
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        void put(int doc, int weight) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                weights[at] = weight;
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(weights, at, weights, at + 1, size - at);
+            docs[at] = doc;
+            weights[at] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(weights, at + 1, weights, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
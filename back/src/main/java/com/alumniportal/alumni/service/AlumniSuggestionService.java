@@ -0,0 +1,659 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.Connection;
+import com.alumniportal.alumni.entity.Profile;
+import com.alumniportal.alumni.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranks the alumni a student is not yet connected to (in any status) by shared branch, degree,
+ * graduation year distance, company and mutual connections: students who share an accepted
+ * alumnus with this student and are also connected to the candidate.
+ *
+ * Profiles are kept as one packed long each (dictionary codes of branch, degree and company plus
+ * the graduation year), so scoring every alumnus is a loop over a primitive array feeding a
+ * bounded min-heap of the best {@code depth} candidates.
+ *
+ * Each student's ranked list is cached (LRU-bounded) and patched rather than dropped when an
+ * alumnus profile changes: the list remembers a floor that every candidate left out of it scores
+ * at or below, so a changed alumnus either moves within the list, enters it, or stays out without
+ * a rescan. Accepted connections change mutual counts, so they drop the lists of the students
+ * whose counts moved; those are recomputed on their next request.
+ *
+ * The model is loaded once the application is ready and kept current by ProfileService,
+ * AuthService and, for every connection row written or deleted, {@link ConnectionSuggestionListener}.
+ */
+@Service
+@Slf4j
+public class AlumniSuggestionService {
+
+    private static final int BRANCH_SCORE = 30;
+    private static final int COMPANY_SCORE = 25;
+    private static final int DEGREE_SCORE = 20;
+    // Same year scores YEAR_SCORE, each year apart YEAR_STEP less
+    private static final int YEAR_SCORE = 15;
+    private static final int YEAR_STEP = 3;
+    private static final int MUTUAL_SCORE = 10;
+    private static final int MAX_MUTUAL_SCORE = 40;
+
+    // Feature layout: year in bits 0-11, branch 12-27, degree 28-43, company 44-63; code 0 is unknown
+    private static final int YEAR_BITS = 12;
+    private static final int BRANCH_SHIFT = 12;
+    private static final int DEGREE_SHIFT = 28;
+    private static final int COMPANY_SHIFT = 44;
+    private static final int MAX_SHORT_CODE = (1 << 16) - 1;
+    private static final int MAX_COMPANY_CODE = (1 << 20) - 1;
+    private static final long ABSENT = -1L;
+
+    // No floor: the list holds every candidate
+    private static final long NO_FLOOR = Long.MIN_VALUE;
+
+    private static final String PROFILES_SQL =
+            "SELECT u.id, r.name, p.branch, p.degree, p.graduation_year, p.current_company" +
+            " FROM users u JOIN roles r ON r.id = u.role_id JOIN profiles p ON p.user_id = u.id" +
+            " WHERE r.name IN ('ALUMNI', 'STUDENT') ORDER BY u.id";
+
+    private static final String CONNECTIONS_SQL = "SELECT student_id, alumni_id, status FROM connections";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int depth;
+    private final int maxCachedStudents;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Model, guarded by lock
+    private final Map<String, Integer> branchCodes = new HashMap<>();
+    private final Map<String, Integer> degreeCodes = new HashMap<>();
+    private final Map<String, Integer> companyCodes = new HashMap<>();
+    private final Map<Long, Integer> alumniIndex = new HashMap<>();
+    private long[] alumniIds = new long[256];
+    // ABSENT for users who stopped being alumni; their slot is reused if they come back
+    private long[] alumniFeatures = new long[256];
+    private int alumniCount;
+    private final Map<Long, Long> studentFeatures = new HashMap<>();
+    // Alumni a student has a connection row with, whatever its status
+    private final Map<Long, Set<Long>> requestedByStudent = new HashMap<>();
+    private final Map<Long, Set<Long>> acceptedByStudent = new HashMap<>();
+    private final Map<Long, Set<Long>> acceptedByAlumnus = new HashMap<>();
+
+    // Ranked lists by student id, least recently used first. Read under the read lock, patched
+    // under the write lock; synchronized on itself for the access order
+    private final LinkedHashMap<Long, Ranked> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong patches = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AlumniSuggestionService(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.suggestions.depth:50}") int depth,
+                                   @Value("${app.suggestions.max-cached-students:10000}") int maxCachedStudents) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.depth = Math.max(1, depth);
+        this.maxCachedStudents = Math.max(1, maxCachedStudents);
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ranked> eldest) {
+                return size() > AlumniSuggestionService.this.maxCachedStudents;
+            }
+        };
+    }
+
+    public record Suggestion(Long alumniId, int score, int mutualConnections) {
+    }
+
+    // Loaded under the write lock: writes made meanwhile wait and then apply to the loaded model
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadModel() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            clear();
+            jdbcTemplate.query(PROFILES_SQL, rs -> {
+                long features = features(rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6));
+                if ("ALUMNI".equals(rs.getString(2))) {
+                    putAlumnus(rs.getLong(1), features);
+                } else {
+                    studentFeatures.put(rs.getLong(1), features);
+                }
+            });
+            jdbcTemplate.query(CONNECTIONS_SQL, rs -> {
+                long studentId = rs.getLong(1);
+                long alumniId = rs.getLong(2);
+                if (!rs.wasNull()) {
+                    requestedByStudent.computeIfAbsent(studentId, id -> new HashSet<>()).add(alumniId);
+                    if (Connection.ConnectionStatus.ACCEPTED.name().equals(rs.getString(3))) {
+                        acceptedByStudent.computeIfAbsent(studentId, id -> new HashSet<>()).add(alumniId);
+                        acceptedByAlumnus.computeIfAbsent(alumniId, id -> new HashSet<>()).add(studentId);
+                    }
+                }
+            });
+            log.info("🧭 Suggestion model loaded: {} alumni, {} students in {} ms",
+                    alumniIndex.size(), studentFeatures.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("❌ Error loading suggestion model: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The student's best {@code limit} suggestions (at most app.suggestions.depth), or empty if
+     * the id is not a student's.
+     */
+    public Optional<List<Suggestion>> suggest(Long studentId, int limit) {
+        int wanted = Math.max(1, Math.min(limit, depth));
+        lock.readLock().lock();
+        try {
+            Long features = studentFeatures.get(studentId);
+            if (features == null) {
+                return Optional.empty();
+            }
+            Ranked ranked;
+            synchronized (cache) {
+                ranked = cache.get(studentId);
+            }
+            // Patches can shorten a list; one shorter than asked for is only exact without a floor
+            if (ranked != null && (ranked.keys.length >= wanted || ranked.floor == NO_FLOOR)) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                ranked = rank(studentId, features);
+                synchronized (cache) {
+                    cache.put(studentId, ranked);
+                }
+            }
+
+            int count = Math.min(wanted, ranked.keys.length);
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                suggestions.add(new Suggestion(alumniIds[indexOf(ranked.keys[i])], scoreOf(ranked.keys[i]),
+                        ranked.mutual[i]));
+            }
+            return Optional.of(suggestions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a saved profile; a role other than ALUMNI or STUDENT takes the user out of the model.
+     * Saves that change neither the role nor a ranked field leave the cached lists alone.
+     */
+    public void onProfileSaved(User user, Profile profile) {
+        if (user == null || user.getId() == null || profile == null) {
+            return;
+        }
+        String role = user.getRole() == null ? null : user.getRole().getName();
+        Long userId = user.getId();
+
+        lock.writeLock().lock();
+        try {
+            long features = features(profile.getBranch(), profile.getDegree(), profile.getGraduationYear(),
+                    profile.getCurrentCompany());
+            if (unchanged(userId, role, features)) {
+                // Photo, contact or bio edits: nothing the ranking reads
+                return;
+            }
+            if ("ALUMNI".equals(role)) {
+                patchAlumnus(putAlumnus(userId, features));
+            } else {
+                Integer index = alumniIndex.get(userId);
+                if (index != null && alumniFeatures[index] != ABSENT) {
+                    alumniFeatures[index] = ABSENT;
+                    patchAlumnus(index);
+                }
+            }
+            if ("STUDENT".equals(role)) {
+                studentFeatures.put(userId, features);
+            } else {
+                studentFeatures.remove(userId);
+            }
+            invalidate(List.of(userId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applies a created or re-statused connection between a student and an alumnus. */
+    public void onConnectionSaved(Long studentId, Long alumniId, Connection.ConnectionStatus status) {
+        applyConnection(studentId, alumniId, true, status == Connection.ConnectionStatus.ACCEPTED);
+    }
+
+    /** Applies a deleted connection: the alumnus becomes a candidate for the student again. */
+    public void onConnectionRemoved(Long studentId, Long alumniId) {
+        applyConnection(studentId, alumniId, false, false);
+    }
+
+    private void applyConnection(Long studentId, Long alumniId, boolean exists, boolean isAccepted) {
+        if (studentId == null || alumniId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (exists) {
+                requestedByStudent.computeIfAbsent(studentId, id -> new HashSet<>()).add(alumniId);
+            } else if (requestedByStudent.containsKey(studentId)) {
+                requestedByStudent.get(studentId).remove(alumniId);
+            }
+
+            Set<Long> accepted = acceptedByStudent.computeIfAbsent(studentId, id -> new HashSet<>());
+            boolean acceptedChanged = isAccepted ? accepted.add(alumniId) : accepted.remove(alumniId);
+            if (!acceptedChanged) {
+                // Only the student's exclusions changed: re-score the alumnus in their list
+                Integer index = alumniIndex.get(alumniId);
+                if (index != null) {
+                    patch(studentId, index);
+                }
+                return;
+            }
+
+            Set<Long> alumnusStudents = acceptedByAlumnus.computeIfAbsent(alumniId, id -> new HashSet<>());
+            if (isAccepted) {
+                alumnusStudents.add(studentId);
+            } else {
+                alumnusStudents.remove(studentId);
+            }
+            // Mutual counts move for everyone sharing an accepted alumnus with the student, and
+            // for the alumnus' other students (the student joins or leaves their peers)
+            Set<Long> affected = new HashSet<>();
+            affected.add(studentId);
+            affected.addAll(alumnusStudents);
+            for (Long sharedAlumnus : accepted) {
+                affected.addAll(acceptedByAlumnus.getOrDefault(sharedAlumnus, Set.of()));
+            }
+            invalidate(affected);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("alumni", alumniIndex.size());
+            stats.put("students", studentFeatures.size());
+            synchronized (cache) {
+                stats.put("cachedStudents", cache.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("patches", patches.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    // Callers hold the read or write lock
+    private Ranked rank(Long studentId, long student) {
+        boolean[] excluded = new boolean[alumniCount];
+        for (Long alumniId : requestedByStudent.getOrDefault(studentId, Set.of())) {
+            Integer index = alumniIndex.get(alumniId);
+            if (index != null) {
+                excluded[index] = true;
+            }
+        }
+        int[] mutual = mutualCounts(studentId);
+
+        TopK top = new TopK(depth);
+        int candidates = 0;
+        for (int i = 0; i < alumniCount; i++) {
+            long alumnus = alumniFeatures[i];
+            if (alumnus != ABSENT && !excluded[i]) {
+                candidates++;
+                top.offer(key(score(student, alumnus, mutual[i]), i));
+            }
+        }
+        long[] keys = top.sortedDescending();
+        int[] rankedMutual = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rankedMutual[i] = mutual[indexOf(keys[i])];
+        }
+        // The heap only dropped candidates below its smallest survivor
+        return new Ranked(keys, rankedMutual, candidates > keys.length ? keys[keys.length - 1] : NO_FLOOR);
+    }
+
+    // Per alumnus: the student's peers (students sharing an accepted alumnus) connected to it
+    private int[] mutualCounts(Long studentId) {
+        int[] mutual = new int[alumniCount];
+        for (Long peer : peersOf(studentId)) {
+            for (Long alumniId : acceptedByStudent.getOrDefault(peer, Set.of())) {
+                Integer index = alumniIndex.get(alumniId);
+                if (index != null) {
+                    mutual[index]++;
+                }
+            }
+        }
+        return mutual;
+    }
+
+    private int mutualCount(Long studentId, int index) {
+        Set<Long> alumnusStudents = acceptedByAlumnus.getOrDefault(alumniIds[index], Set.of());
+        if (alumnusStudents.isEmpty()) {
+            return 0;
+        }
+        int mutual = 0;
+        for (Long peer : peersOf(studentId)) {
+            if (alumnusStudents.contains(peer)) {
+                mutual++;
+            }
+        }
+        return mutual;
+    }
+
+    private Set<Long> peersOf(Long studentId) {
+        Set<Long> peers = new HashSet<>();
+        for (Long alumniId : acceptedByStudent.getOrDefault(studentId, Set.of())) {
+            peers.addAll(acceptedByAlumnus.getOrDefault(alumniId, Set.of()));
+        }
+        peers.remove(studentId);
+        return peers;
+    }
+
+    // Callers hold the write lock
+    private void patchAlumnus(int index) {
+        synchronized (cache) {
+            for (Long studentId : new ArrayList<>(cache.keySet())) {
+                patch(studentId, index);
+            }
+        }
+    }
+
+    /** Re-scores one alumnus in one student's cached list, or drops the list if that can't be exact. */
+    private void patch(Long studentId, int index) {
+        synchronized (cache) {
+            Ranked ranked = cache.get(studentId);
+            Long student = studentFeatures.get(studentId);
+            if (ranked == null || student == null) {
+                return;
+            }
+            int at = ranked.positionOf(index);
+            boolean candidate = alumniFeatures[index] != ABSENT
+                    && !requestedByStudent.getOrDefault(studentId, Set.of()).contains(alumniIds[index]);
+            Ranked patched = at >= 0 ? ranked.without(at) : ranked;
+            if (candidate) {
+                int mutual = at >= 0 ? ranked.mutual[at] : mutualCount(studentId, index);
+                long key = key(score(student, alumniFeatures[index], mutual), index);
+                patched = patched.offer(key, mutual, depth);
+            }
+            cache.put(studentId, patched);
+            patches.incrementAndGet();
+        }
+    }
+
+    private void invalidate(Iterable<Long> studentIds) {
+        synchronized (cache) {
+            for (Long studentId : studentIds) {
+                if (cache.remove(studentId) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Callers hold the lock. True if the model already holds userId under role with these features
+    private boolean unchanged(Long userId, String role, long features) {
+        Integer index = alumniIndex.get(userId);
+        long alumnus = index == null ? ABSENT : alumniFeatures[index];
+        return alumnus == ("ALUMNI".equals(role) ? features : ABSENT)
+                && Objects.equals(studentFeatures.get(userId), "STUDENT".equals(role) ? features : null);
+    }
+
+    private int putAlumnus(Long userId, long features) {
+        Integer existing = alumniIndex.get(userId);
+        if (existing != null) {
+            alumniFeatures[existing] = features;
+            return existing;
+        }
+        int index = alumniCount++;
+        if (index == alumniIds.length) {
+            alumniIds = Arrays.copyOf(alumniIds, index * 2);
+            alumniFeatures = Arrays.copyOf(alumniFeatures, index * 2);
+        }
+        alumniIds[index] = userId;
+        alumniFeatures[index] = features;
+        alumniIndex.put(userId, index);
+        return index;
+    }
+
+    private void clear() {
+        alumniIndex.clear();
+        alumniCount = 0;
+        studentFeatures.clear();
+        requestedByStudent.clear();
+        acceptedByStudent.clear();
+        acceptedByAlumnus.clear();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    // Callers hold the write lock (codes are assigned on first sight)
+    private long features(String branch, String degree, String graduationYear, String company) {
+        return year(graduationYear)
+                | (long) code(branchCodes, branch, MAX_SHORT_CODE) << BRANCH_SHIFT
+                | (long) code(degreeCodes, degree, MAX_SHORT_CODE) << DEGREE_SHIFT
+                | (long) code(companyCodes, company, MAX_COMPANY_CODE) << COMPANY_SHIFT;
+    }
+
+    // Near max the dictionary stops growing and new values count as unknown; all-ones stays
+    // free, so no feature vector can equal ABSENT
+    private static int code(Map<String, Integer> codes, String value, int max) {
+        String key = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return 0;
+        }
+        Integer code = codes.get(key);
+        if (code == null && codes.size() < max - 1) {
+            code = codes.size() + 1;
+            codes.put(key, code);
+        }
+        return code == null ? 0 : code;
+    }
+
+    private static long year(String graduationYear) {
+        if (graduationYear == null) {
+            return 0;
+        }
+        String digits = graduationYear.trim();
+        if (digits.length() < 4) {
+            return 0;
+        }
+        try {
+            int year = Integer.parseInt(digits.substring(0, 4));
+            return year > 0 && year < (1 << YEAR_BITS) ? year : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static int score(long student, long alumnus, int mutual) {
+        int score = 0;
+        if (sameKnown(student, alumnus, BRANCH_SHIFT, MAX_SHORT_CODE)) {
+            score += BRANCH_SCORE;
+        }
+        if (sameKnown(student, alumnus, DEGREE_SHIFT, MAX_SHORT_CODE)) {
+            score += DEGREE_SCORE;
+        }
+        if (sameKnown(student, alumnus, COMPANY_SHIFT, MAX_COMPANY_CODE)) {
+            score += COMPANY_SCORE;
+        }
+        int studentYear = (int) (student & ((1 << YEAR_BITS) - 1));
+        int alumnusYear = (int) (alumnus & ((1 << YEAR_BITS) - 1));
+        if (studentYear != 0 && alumnusYear != 0) {
+            score += Math.max(0, YEAR_SCORE - YEAR_STEP * Math.abs(studentYear - alumnusYear));
+        }
+        return score + Math.min(MAX_MUTUAL_SCORE, MUTUAL_SCORE * mutual);
+    }
+
+    private static boolean sameKnown(long a, long b, int shift, int mask) {
+        long code = (a >>> shift) & mask;
+        return code != 0 && code == ((b >>> shift) & mask);
+    }
+
+    // Score in the high word, inverted index in the low word: higher keys rank first, ties by index
+    private static long key(int score, int index) {
+        return ((long) score << 32) | (~index & 0xFFFFFFFFL);
+    }
+
+    private static int scoreOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int indexOf(long key) {
+        return ~(int) key;
+    }
+
+    /**
+     * A student's suggestions, best first, with the mutual count of each. Every candidate not in
+     * the list has a key at or below floor, every listed one at or above it. Immutable.
+     */
+    private static final class Ranked {
+        final long[] keys;
+        final int[] mutual;
+        final long floor;
+
+        Ranked(long[] keys, int[] mutual, long floor) {
+            this.keys = keys;
+            this.mutual = mutual;
+            this.floor = floor;
+        }
+
+        int positionOf(int index) {
+            for (int i = 0; i < keys.length; i++) {
+                if (indexOf(keys[i]) == index) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Ranked without(int at) {
+            long[] newKeys = new long[keys.length - 1];
+            int[] newMutual = new int[mutual.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(mutual, 0, newMutual, 0, at);
+            System.arraycopy(mutual, at + 1, newMutual, at, mutual.length - at - 1);
+            return new Ranked(newKeys, newMutual, floor);
+        }
+
+        /** Adds a candidate that is not in the list; past capacity the last one drops out. */
+        Ranked offer(long key, int mutualCount, int capacity) {
+            if (key <= floor) {
+                // Stays outside, where the floor already bounds it
+                return this;
+            }
+            int at = 0;
+            while (at < keys.length && keys[at] > key) {
+                at++;
+            }
+            int size = Math.min(keys.length + 1, capacity);
+            if (at >= size) {
+                // Below a full list: it becomes the best candidate left out
+                return new Ranked(keys, mutual, key);
+            }
+            long[] newKeys = new long[size];
+            int[] newMutual = new int[size];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(mutual, 0, newMutual, 0, at);
+            newKeys[at] = key;
+            newMutual[at] = mutualCount;
+            System.arraycopy(keys, at, newKeys, at + 1, size - at - 1);
+            System.arraycopy(mutual, at, newMutual, at + 1, size - at - 1);
+            long newFloor = size == keys.length ? Math.max(floor, keys[keys.length - 1]) : floor;
+            return new Ranked(newKeys, newMutual, newFloor);
+        }
+    }
+
+    /** Bounded min-heap of the largest keys offered. */
+    private static final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sortedDescending() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (int lo = 0, hi = sorted.length - 1; lo < hi; lo++, hi--) {
+                long swap = sorted[lo];
+                sorted[lo] = sorted[hi];
+                sorted[hi] = swap;
+            }
+            return sorted;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heap[right] < heap[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -10,8 +10,9 @@ import com.alumniportal.alumni.repository.ProfileRepository;
 import com.alumniportal.alumni.repository.RoleRepository;
 import com.alumniportal.alumni.repository.UserRepository;
 import com.alumniportal.alumni.security.JwtUtil;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AuthService {
@@ -19,19 +20,28 @@ public class AuthService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final ProfileRepository profileRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final AlumniSearchService alumniSearchService;
+    private final AlumniSuggestionService alumniSuggestionService;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthService(UserRepository userRepository,
                        RoleRepository roleRepository,
                        ProfileRepository profileRepository,
-                       PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       PasswordHashingService passwordHashingService,
+                       JwtUtil jwtUtil,
+                       AlumniSearchService alumniSearchService,
+                       AlumniSuggestionService alumniSuggestionService,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.profileRepository = profileRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
+        this.alumniSearchService = alumniSearchService;
+        this.alumniSuggestionService = alumniSuggestionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // ================== REGISTER ==================
@@ -56,21 +66,26 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(req.getEmail());
-        user.setPassword(passwordEncoder.encode(req.getPassword()));
+        user.setPassword(passwordHashingService.encode(req.getPassword()));
         user.setRole(role);
 
-        User savedUser = userRepository.save(user);
-
         Profile profile = new Profile();
-        profile.setUser(savedUser);
+        profile.setUser(user);
         profile.setFirstName(req.getFirstName());
         profile.setLastName(req.getLastName());
-        profile.setEmail(savedUser.getEmail());
+        profile.setEmail(user.getEmail());
         profile.setPhone(req.getPhone());
-        profileRepository.save(profile);
 
-        savedUser.setProfile(profile);
-        userRepository.save(savedUser);
+        // One transaction (the hash is computed above, outside it): the profile takes the new user's
+        // id as its own, and no user is left without a profile
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(user);
+            profileRepository.save(profile);
+            saved.setProfile(profile);
+            return saved;
+        });
+        alumniSearchService.onProfileSaved(savedUser, profile);
+        alumniSuggestionService.onProfileSaved(savedUser, profile);
 
         // Generate token with role name (JwtUtil will add ROLE_ prefix)
         String token = jwtUtil.generateToken(savedUser.getEmail(), role.getName());
@@ -84,10 +99,18 @@ public class AuthService {
         User user = userRepository.findByEmail(req.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + req.getEmail()));
 
-        if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) {
+        PasswordHashingService.Verification verification =
+                passwordHashingService.verify(req.getPassword(), user.getPassword());
+        if (!verification.matches()) {
             throw new RuntimeException("Invalid credentials");
         }
 
+        // Hash was made with an older, lower cost factor: store the stronger one computed during verification
+        if (verification.upgradedHash() != null) {
+            user.setPassword(verification.upgradedHash());
+            userRepository.save(user);
+        }
+
         // Generate token with role name (JwtUtil will add ROLE_ prefix)
         String roleName = user.getRole().getName();
         String token = jwtUtil.generateToken(user.getEmail(), roleName);
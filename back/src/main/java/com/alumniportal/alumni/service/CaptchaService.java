@@ -1,37 +1,189 @@
 package com.alumniportal.alumni.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CAPTCHA checks for the auth endpoints, in front of a pluggable {@link CaptchaVerifier}.
+ *
+ * A passing token is good for exactly one request: positive verdicts are never cached, and when
+ * concurrent checks of one token share a provider call only the first of them gets the pass.
+ * Rejections are cached for a short time, keyed by token and email, so a client replaying a bad
+ * token costs no provider round trip. The wait for the provider is bounded by
+ * timeout-ms; after failure-threshold consecutive errors or timeouts the breaker opens and calls
+ * are answered with the fail-open policy for open-ms, then a single trial call decides whether
+ * it closes again.
+ */
 @Service
+@Slf4j
 public class CaptchaService {
 
-    // Use your actual secret key here
-    private static final String SECRET_KEY = "6LdJxtsrAAAAAJobhn7-E6vawhFdlovPLnj1NltO";
-    private static final String VERIFY_URL = "https://www.google.com/recaptcha/api/siteverify";
+    private final CaptchaVerifier captchaVerifier;
+    private final long timeoutMs;
+    private final long cacheTtlMs;
+    private final int cacheMaxSize;
+    private final int failureThreshold;
+    private final long openMs;
+    private final boolean failOpen;
 
-    public boolean verifyCaptcha(String token) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            String url = VERIFY_URL + "?secret=" + SECRET_KEY + "&response=" + token;
+    private final ConcurrentHashMap<String, CachedVerdict> verdicts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SharedCall> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean shrinking = new AtomicBoolean();
 
-            // Make POST request to Google
-            String response = restTemplate.postForObject(url, null, String.class);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
 
-            // Parse JSON safely
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response);
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong providerCalls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
 
-            // Optional: log the full response for debugging
-            System.out.println("Captcha verification response: " + response);
+    public CaptchaService(CaptchaVerifier captchaVerifier,
+                          @Value("${app.captcha.timeout-ms:2500}") long timeoutMs,
+                          @Value("${app.captcha.cache-ttl-ms:120000}") long cacheTtlMs,
+                          @Value("${app.captcha.cache-max-size:10000}") int cacheMaxSize,
+                          @Value("${app.captcha.breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${app.captcha.breaker.open-ms:30000}") long openMs,
+                          @Value("${app.captcha.fail-open:false}") boolean failOpen) {
+        this.captchaVerifier = captchaVerifier;
+        this.timeoutMs = Math.max(100, timeoutMs);
+        this.cacheTtlMs = Math.max(0, cacheTtlMs);
+        this.cacheMaxSize = Math.max(1, cacheMaxSize);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = Math.max(1000, openMs);
+        this.failOpen = failOpen;
+    }
 
-            // Return success or false if missing
-            return jsonNode.path("success").asBoolean(false);
-        } catch (Exception e) {
-            e.printStackTrace();
+    /** Checks a token submitted with a request for email; a passing token is accepted once. */
+    public boolean verifyCaptcha(String token, String email) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        String key = (email == null ? "" : email.trim().toLowerCase()) + '\n' + token;
+        long now = System.currentTimeMillis();
+        CachedVerdict cached = verdicts.get(key);
+        if (cached != null && now < cached.expiresAt()) {
+            cacheHits.incrementAndGet();
             return false;
         }
+
+        boolean trial = false;
+        if (now < openUntil.get() || (openUntil.get() != 0 && !(trial = trialInFlight.compareAndSet(false, true)))) {
+            shortCircuited.incrementAndGet();
+            return failOpen;
+        }
+
+        try {
+            SharedCall call = sharedCall(key, token);
+            boolean valid = call.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+            onSuccess();
+            // Concurrent checks of one passing token: only the first caller may use it
+            return valid && call.claimed().compareAndSet(false, true);
+        } catch (TimeoutException | ExecutionException e) {
+            onFailure(e instanceof ExecutionException ? e.getCause() : e);
+            return failOpen;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
     }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("provider", captchaVerifier.getClass().getSimpleName());
+        stats.put("breaker", System.currentTimeMillis() < openUntil.get() ? "OPEN"
+                : openUntil.get() != 0 ? "HALF_OPEN" : "CLOSED");
+        stats.put("cachedRejections", verdicts.size());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("providerCalls", providerCalls.get());
+        stats.put("failures", failures.get());
+        stats.put("shortCircuited", shortCircuited.get());
+        return stats;
+    }
+
+    // Callers checking the same token for the same email at the same time wait on one provider call
+    private SharedCall sharedCall(String key, String token) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        SharedCall shared = new SharedCall(result, new AtomicBoolean());
+        SharedCall existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing;
+        }
+        providerCalls.incrementAndGet();
+        CompletableFuture<Boolean> call;
+        try {
+            call = captchaVerifier.verify(token);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((valid, error) -> {
+            inFlight.remove(key, shared);
+            if (error == null) {
+                if (!valid) {
+                    cacheRejection(key);
+                }
+                result.complete(valid);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        return shared;
+    }
+
+    private void cacheRejection(String key) {
+        long now = System.currentTimeMillis();
+        if (verdicts.size() >= cacheMaxSize && shrinking.compareAndSet(false, true)) {
+            try {
+                verdicts.values().removeIf(v -> now >= v.expiresAt());
+                if (verdicts.size() >= cacheMaxSize) {
+                    verdicts.clear();
+                }
+            } finally {
+                shrinking.set(false);
+            }
+        }
+        verdicts.put(key, new CachedVerdict(now + cacheTtlMs));
+    }
+
+    private void onSuccess() {
+        if (openUntil.get() != 0 || consecutiveFailures.get() != 0) {
+            if (openUntil.getAndSet(0) != 0) {
+                log.info("✅ CAPTCHA provider reachable again, circuit closed");
+            }
+            consecutiveFailures.set(0);
+        }
+    }
+
+    private void onFailure(Throwable cause) {
+        failures.incrementAndGet();
+        // A failed trial call re-opens right away; otherwise open after threshold consecutive failures
+        if (openUntil.get() != 0 || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil.set(System.currentTimeMillis() + openMs);
+            log.warn("⚠️ CAPTCHA provider failing ({}), circuit open for {} ms; fail-open={}",
+                    cause == null ? "unknown" : cause.toString(), openMs, failOpen);
+        } else {
+            log.warn("⚠️ CAPTCHA verification failed: {}", cause == null ? "unknown" : cause.toString());
+        }
+    }
+
+    private record CachedVerdict(long expiresAt) {}
+
+    private record SharedCall(CompletableFuture<Boolean> result, AtomicBoolean claimed) {}
 }
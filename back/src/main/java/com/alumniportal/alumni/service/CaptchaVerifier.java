@@ -0,0 +1,17 @@
+package com.alumniportal.alumni.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks a CAPTCHA response token with a provider. Implementations must not block the calling
+ * thread; {@link CaptchaService} adds caching, timeouts and the circuit breaker on top.
+ * Selected with app.captcha.provider.
+ */
+public interface CaptchaVerifier {
+
+    /**
+     * Completes with true or false when the provider gave a verdict, and exceptionally when it
+     * could not be asked (network error, bad response); only the latter count against the breaker.
+     */
+    CompletableFuture<Boolean> verify(String token);
+}
@@ -0,0 +1,212 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.repository.ChatMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves old chat history out of chat_messages into the compressed cold tier
+ * ({@link ChatSegmentStore}) and serves reads from it.
+ *
+ * Per conversation, the archived part is always a seq prefix: a run takes the oldest hot messages
+ * in seq order while they are older than min-age and already READ (so no status change can reach
+ * them afterwards), writes them as one new segment and deletes them from the hot table in the
+ * same transaction. A conversation is only archived once at least min-segment-messages qualify,
+ * which keeps segments from fragmenting. If the delete does not commit, the rows are dropped
+ * on a later run and readers skip hot rows the archive already holds.
+ */
+@Service
+@Slf4j
+public class ChatArchiveService {
+
+    private static final String CANDIDATES_SQL =
+            "SELECT DISTINCT conversation_id FROM chat_messages WHERE timestamp < ? AND status = 'READ'";
+
+    private static final String DELETE_ARCHIVED_SQL =
+            "DELETE FROM chat_messages WHERE conversation_id = ? AND seq <= ?";
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ConversationSequenceService conversationSequenceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatSegmentStore store;
+
+    private final boolean enabled;
+    private final long minAgeDays;
+    private final long intervalMs;
+    private final int batchSize;
+    private final int minSegmentMessages;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedMessages = new AtomicLong();
+    private final AtomicLong segmentsWritten = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public ChatArchiveService(ChatMessageRepository chatMessageRepository,
+                              ConversationSequenceService conversationSequenceService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.chat.archive.enabled:false}") boolean enabled,
+                              @Value("${app.chat.archive.dir:chat-archive}") String dir,
+                              @Value("${app.chat.archive.min-age-days:180}") long minAgeDays,
+                              @Value("${app.chat.archive.interval-ms:3600000}") long intervalMs,
+                              @Value("${app.chat.archive.batch-size:5000}") int batchSize,
+                              @Value("${app.chat.archive.min-segment-messages:100}") int minSegmentMessages,
+                              @Value("${app.chat.archive.block-size:64}") int blockSize) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.conversationSequenceService = conversationSequenceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.store = new ChatSegmentStore(Path.of(dir), blockSize);
+        this.enabled = enabled;
+        this.minAgeDays = Math.max(1, minAgeDays);
+        this.intervalMs = Math.max(1000, intervalMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.minSegmentMessages = Math.max(1, Math.min(minSegmentMessages, this.batchSize));
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("🗄️ Chat archive enabled: messages older than {} days move to cold storage", minAgeDays);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // ===== Reads (used by ChatService whether or not archiving is enabled) =====
+
+    public long archivedThroughSeq(String conversationId) {
+        return store.archivedThroughSeq(conversationId);
+    }
+
+    public List<ChatMessage> readAfter(String conversationId, long afterSeq, int limit) {
+        return store.readAfter(conversationId, afterSeq, limit);
+    }
+
+    public List<ChatMessage> readBefore(String conversationId, long beforeSeq, int limit) {
+        return store.readBefore(conversationId, beforeSeq, limit);
+    }
+
+    public Optional<ChatMessage> findById(String conversationId, long messageId) {
+        return store.findById(conversationId, messageId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.get());
+        stats.put("archivedMessages", archivedMessages.get());
+        stats.put("segmentsWritten", segmentsWritten.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    // ===== Archival =====
+
+    private void runSafely() {
+        try {
+            archiveOlderThan(LocalDateTime.now().minusDays(minAgeDays));
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.error("❌ Error archiving chat history: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One archival pass over every conversation with READ messages older than cutoff.
+     * Returns the number of messages moved to cold storage.
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        runs.incrementAndGet();
+        List<String> conversationIds = jdbcTemplate.queryForList(CANDIDATES_SQL, String.class, cutoff);
+        int moved = 0;
+        for (String conversationId : conversationIds) {
+            try {
+                moved += archiveConversation(conversationId, cutoff);
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                log.error("❌ Error archiving conversation {}: {}", conversationId, e.getMessage(), e);
+            }
+        }
+        if (moved > 0) {
+            log.info("🗄️ Archived {} messages from {} conversations", moved, conversationIds.size());
+        }
+        return moved;
+    }
+
+    private int archiveConversation(String conversationId, LocalDateTime cutoff) {
+        // Messages stored before sequencing get their seq here; the archive is keyed by it
+        conversationSequenceService.ensureSequenced(conversationId);
+
+        Integer moved = transactionTemplate.execute(status -> {
+            long archivedThrough = store.archivedThroughSeq(conversationId);
+            if (archivedThrough > 0) {
+                // Leftovers from a run whose segment was written but whose delete rolled back
+                jdbcTemplate.update(DELETE_ARCHIVED_SQL, conversationId, archivedThrough);
+            }
+
+            List<ChatMessage> candidates = chatMessageRepository.findInConversationAfterSeq(
+                    conversationId, archivedThrough, PageRequest.of(0, batchSize));
+            List<ChatMessage> prefix = new ArrayList<>();
+            for (ChatMessage message : candidates) {
+                if (!message.getTimestamp().isBefore(cutoff) || message.getStatus() != ChatMessage.MessageStatus.READ) {
+                    break;
+                }
+                prefix.add(message);
+            }
+            if (prefix.size() < minSegmentMessages) {
+                return 0;
+            }
+
+            try {
+                store.append(conversationId, prefix);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segmentsWritten.incrementAndGet();
+            jdbcTemplate.update(DELETE_ARCHIVED_SQL, conversationId, prefix.get(prefix.size() - 1).getSeq());
+            return prefix.size();
+        });
+
+        int count = moved == null ? 0 : moved;
+        archivedMessages.addAndGet(count);
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects delivered / client-acknowledged message ids and flushes the SENT -> DELIVERED
+ * transitions in batches on a dedicated scheduler thread. Each flush is one set-based UPDATE
+ * and one coalesced status frame per sender, instead of a transaction and a frame per message.
+ *
+ * The queue is bounded by max-queued. An ack that does not fit is dropped and counted; its
+ * message simply stays SENT until the receiver acks or reads it again.
+ */
+@Service
+@Slf4j
+public class ChatDeliveryTracker {
+
+    private final ChatService chatService;
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final LinkedBlockingQueue<DeliveryAck> pending;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public ChatDeliveryTracker(ChatService chatService,
+                               @Value("${app.chat.delivery.flush-interval-ms:100}") long flushIntervalMs,
+                               @Value("${app.chat.delivery.batch-size:500}") int batchSize,
+                               @Value("${app.chat.delivery.max-queued:100000}") int maxQueued) {
+        this.chatService = chatService;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.pending = new LinkedBlockingQueue<>(Math.max(this.batchSize, maxQueued));
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-delivery-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flushSafely();
+    }
+
+    /**
+     * Records that messageId reached receiverId. Cheap and non-blocking; the DB write happens on the next flush.
+     * Returns false if the queue is full and the ack was dropped.
+     */
+    public boolean recordDelivered(Long messageId, Long receiverId) {
+        if (!pending.offer(new DeliveryAck(messageId, receiverId))) {
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("⚠️ Delivery queue full ({} acks), {} dropped so far", pending.size(), dropped.get());
+            }
+            return false;
+        }
+        recorded.incrementAndGet();
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", pending.size());
+        stats.put("recorded", recorded.get());
+        stats.put("delivered", delivered.get());
+        stats.put("flushes", flushes.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private void flushSafely() {
+        try {
+            // Drain in bounded chunks so one flush never builds an unbounded IN list
+            while (!pending.isEmpty()) {
+                if (flush() == 0) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            log.error("❌ Error flushing delivery acks: {}", e.getMessage(), e);
+        }
+    }
+
+    private int flush() {
+        List<DeliveryAck> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        pending.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Duplicate acks for the same id collapse here
+        Map<Long, Long> receiverByMessageId = new HashMap<>();
+        for (DeliveryAck ack : batch) {
+            receiverByMessageId.put(ack.messageId(), ack.receiverId());
+        }
+
+        List<ChatMessage> transitioned = chatService.markMessagesAsDelivered(receiverByMessageId);
+        flushes.incrementAndGet();
+        delivered.addAndGet(transitioned.size());
+
+        if (!transitioned.isEmpty()) {
+            chatService.notifyDelivered(transitioned);
+        }
+        return batch.size();
+    }
+
+    private record DeliveryAck(Long messageId, Long receiverId) {}
+}
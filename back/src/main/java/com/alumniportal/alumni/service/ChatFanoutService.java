@@ -0,0 +1,188 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.util.ChatPayloadCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Single entry point for user-addressed chat frames. A payload is encoded once into an
+ * {@link EncodedFrame}, whose bytes are shared by every recipient: each local session, every
+ * addressed user and the {@link ChatRelay}, which forwards it only to the other nodes that hold a
+ * session for the user.
+ *
+ * A session counts as connected once it has subscribed to its message queue (frames sent between
+ * CONNECT and SUBSCRIBE would be dropped by the broker). Users are registered with the relay on
+ * their first such session and unregistered on their last DISCONNECT. The relay calls run on one
+ * registration thread, in the order the transitions were decided, so inbound-channel threads never
+ * wait on the relay. When a user comes online anywhere in the cluster, a
+ * {@link ChatUserOnlineEvent} is published on every node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatFanoutService {
+
+    private static final String MESSAGE_QUEUE_SUBSCRIPTION = "/user/queue/messages";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatRelay chatRelay;
+    private final ChatPayloadCodec chatPayloadCodec;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<String, String> userBySession = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> sessionCounts = new ConcurrentHashMap<>();
+    private final ExecutorService registrations = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chat-relay-registrations");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void start() {
+        chatRelay.start(
+                frame -> deliverLocally(frame.userId(), frame.destination(), frame.payload()),
+                userId -> eventPublisher.publishEvent(new ChatUserOnlineEvent(userId)));
+    }
+
+    /** True if the user has a receiving session on this or any other node. */
+    public boolean isOnline(String userId) {
+        return sessionCounts.containsKey(userId) || chatRelay.isOnline(userId);
+    }
+
+    /**
+     * Serializes the payload once. The result can be sent to any number of users and destinations.
+     */
+    public EncodedFrame encode(Object payload) throws IOException {
+        return new EncodedFrame(chatPayloadCodec.encode(payload));
+    }
+
+    public void sendToUser(String userId, String destination, Object payload) {
+        sendToUsers(List.of(userId), destination, payload);
+    }
+
+    /**
+     * Sends the same payload to several users (e.g. receiver and sender of a message),
+     * serializing it only once.
+     */
+    public void sendToUsers(List<String> userIds, String destination, Object payload) {
+        EncodedFrame frame;
+        try {
+            frame = encode(payload);
+        } catch (Exception e) {
+            log.error("❌ Error encoding frame for users {}: {}", userIds, e.getMessage());
+            return;
+        }
+        for (String userId : userIds) {
+            sendToUser(userId, destination, frame);
+        }
+    }
+
+    public void sendToUser(String userId, String destination, EncodedFrame frame) {
+        deliverLocally(userId, destination, frame.bytes);
+        chatRelay.publish(new ChatRelay.RelayFrame(userId, destination, frame.bytes));
+    }
+
+    @PreDestroy
+    void stop() {
+        registrations.shutdown();
+    }
+
+    private void deliverLocally(String userId, String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(
+                messagingTemplate.getUserDestinationPrefix() + userId + destination,
+                MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    @EventListener
+    public void onSessionSubscribe(SessionSubscribeEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+        if (user == null || sessionId == null || !MESSAGE_QUEUE_SUBSCRIPTION.equals(destination)) {
+            return;
+        }
+        String userId = user.getName();
+        if (userBySession.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+        // Queued inside compute, so a user's register/unregister reach the relay in the order decided
+        sessionCounts.compute(userId, (k, count) -> {
+            if (count == null) {
+                queueRelayCall("register", userId, chatRelay::register);
+                return 1;
+            }
+            return count + 1;
+        });
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        // Disconnect can be published more than once per session; only the first one counts
+        String userId = userBySession.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        sessionCounts.computeIfPresent(userId, (k, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            queueRelayCall("unregister", userId, chatRelay::unregister);
+            return null;
+        });
+    }
+
+    private void queueRelayCall(String action, String userId, Consumer<String> call) {
+        try {
+            registrations.execute(() -> {
+                try {
+                    call.accept(userId);
+                } catch (Exception e) {
+                    log.error("❌ Relay {} for user {} failed: {}", action, userId, e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: sessions closing now don't need the relay any more
+            log.debug("Relay {} for user {} skipped during shutdown", action, userId);
+        }
+    }
+
+    /**
+     * A payload serialized once for fan-out. The bytes are never exposed to callers, so the buffer
+     * shared across sessions and nodes cannot be modified after encoding.
+     */
+    public static final class EncodedFrame {
+        private final byte[] bytes;
+
+        private EncodedFrame(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public int size() {
+            return bytes.length;
+        }
+    }
+}
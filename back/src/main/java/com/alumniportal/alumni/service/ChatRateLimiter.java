@@ -0,0 +1,197 @@
+package com.alumniportal.alumni.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limits for inbound STOMP frames, per user and per destination.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full again (the GCRA
+ * form of a token bucket): taking a token is one compareAndSet that pushes that time forward by
+ * one emission interval, and the frame is refused when the bucket is already more than burst
+ * intervals in debt. Destinations without a configured limit share one default bucket per user,
+ * so made-up destination names cannot grow the table. Buckets that have refilled completely
+ * hold no state worth keeping and are swept periodically.
+ */
+@Service
+@Slf4j
+public class ChatRateLimiter {
+
+    private static final String DEFAULT_BUCKET = "*";
+    // Throttle notices sent back to a user: at most one per second, whatever they keep sending
+    private static final String NOTICE_BUCKET = "!notice";
+    private static final Limit NOTICE_LIMIT = Limit.of(1, 1);
+
+    private final boolean enabled;
+    private final Limit defaultLimit;
+    private final Map<String, Limit> destinationLimits;
+    // Monotonic nanos; tests pass their own
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> throttledByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public ChatRateLimiter(@Value("${app.chat.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.chat.rate-limit.default-per-second:10}") double defaultPerSecond,
+                           @Value("${app.chat.rate-limit.default-burst:20}") int defaultBurst,
+                           @Value("${app.chat.rate-limit.destinations:}") String destinations) {
+        this(enabled, defaultPerSecond, defaultBurst, destinations, System::nanoTime);
+    }
+
+    ChatRateLimiter(boolean enabled, double defaultPerSecond, int defaultBurst, String destinations,
+                    LongSupplier clock) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.defaultLimit = Limit.of(defaultPerSecond, defaultBurst);
+        this.destinationLimits = parseDestinationLimits(destinations);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-rate-limit-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, 60, 60, TimeUnit.SECONDS);
+        log.info("🚦 Chat rate limiting enabled: default {}, overrides {}", defaultLimit, destinationLimits);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes one token from the user's bucket for destination. Returns false, and counts the
+     * frame against the user, when the bucket is empty.
+     */
+    public boolean tryAcquire(String userId, String destination) {
+        if (!enabled) {
+            return true;
+        }
+        Limit limit = destination == null ? null : destinationLimits.get(destination);
+        String bucketName = limit != null ? destination : DEFAULT_BUCKET;
+        if (limit == null) {
+            limit = defaultLimit;
+        }
+
+        if (!take(new BucketKey(userId, bucketName), limit)) {
+            throttled.incrementAndGet();
+            throttledByUser.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+            return false;
+        }
+        allowed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Whether a throttled user may be told about it now. Kept in its own bucket, so notices
+     * never use up the user's frame budget.
+     */
+    public boolean tryAcquireNotice(String userId) {
+        return !enabled || take(new BucketKey(userId, NOTICE_BUCKET), NOTICE_LIMIT);
+    }
+
+    private boolean take(BucketKey key, Limit limit) {
+        long now = clock.getAsLong();
+        AtomicLong fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long base = current - now > 0 ? current : now;
+            if (base - now > limit.toleranceNanos()) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, base + limit.intervalNanos())) {
+                return true;
+            }
+        }
+    }
+
+    public long getThrottledCount(String userId) {
+        AtomicLong count = throttledByUser.get(userId);
+        return count == null ? 0 : count.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("activeBuckets", buckets.size());
+        stats.put("allowed", allowed.get());
+        stats.put("throttled", throttled.get());
+        Map<String, Long> topThrottled = new LinkedHashMap<>();
+        throttledByUser.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, AtomicLong> e) -> e.getValue().get()).reversed())
+                .limit(10)
+                .forEach(e -> topThrottled.put(e.getKey(), e.getValue().get()));
+        stats.put("throttledByUser", topThrottled);
+        return stats;
+    }
+
+    private void sweepSafely() {
+        try {
+            long now = clock.getAsLong();
+            // A bucket removed just as a frame takes from it only grants that user one extra token
+            buckets.entrySet().removeIf(e -> e.getValue().get() - now <= 0);
+        } catch (Exception e) {
+            log.error("❌ Error sweeping rate-limit buckets: {}", e.getMessage(), e);
+        }
+    }
+
+    // "destination:perSecond:burst,..." e.g. "/app/sendMessage:5:20,/app/typing:10:20"
+    private static Map<String, Limit> parseDestinationLimits(String spec) {
+        Map<String, Limit> limits = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return limits;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit entry '" + entry.trim()
+                        + "', expected destination:perSecond:burst");
+            }
+            limits.put(parts[0].trim(), Limit.of(Double.parseDouble(parts[1].trim()), Integer.parseInt(parts[2].trim())));
+        }
+        return Map.copyOf(limits);
+    }
+
+    private record BucketKey(String userId, String bucket) {}
+
+    private record Limit(long intervalNanos, long toleranceNanos) {
+        static Limit of(double perSecond, int burst) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(0.001, perSecond));
+            return new Limit(interval, interval * (Math.max(1, burst) - 1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f/s burst %d", (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos,
+                    toleranceNanos / intervalNanos + 1);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alumniportal.alumni.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Cross-node relay for user-addressed chat frames. Each node registers the users that currently
+ * hold a STOMP session on it; {@link #publish} forwards a frame only to the other nodes holding a
+ * session for the target user. Delivery to sessions on the local node is done by the caller.
+ * The relay also knows which users are online anywhere in the cluster.
+ */
+public interface ChatRelay {
+
+    /**
+     * Starts receiving frames that other nodes publish for users registered on this node.
+     * userOnline is called on every node when a user registers their first session anywhere.
+     */
+    void start(Consumer<RelayFrame> localDelivery, Consumer<String> userOnline);
+
+    /** The user now has at least one session on this node. */
+    void register(String userId);
+
+    /** The user's last session on this node closed. */
+    void unregister(String userId);
+
+    /** True while the user is registered on any node, this one included. */
+    boolean isOnline(String userId);
+
+    /** Forwards the frame to every other node that holds a session for frame.userId(). */
+    void publish(RelayFrame frame);
+
+    /** A pre-encoded frame for a user destination such as /queue/messages. */
+    record RelayFrame(String userId, String destination, byte[] payload) {}
+}
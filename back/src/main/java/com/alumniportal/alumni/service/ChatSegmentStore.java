@@ -0,0 +1,400 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold tier for archived chat messages: one directory per conversation holding immutable segment
+ * files. A segment covers a contiguous seq range and is written once (temp file + atomic rename),
+ * so the archive only ever grows by appending new segments.
+ *
+ * Segment layout: header, then Deflate-compressed blocks of up to blockSize messages, then a
+ * sparse index with one entry per block (seq range, id range, offset, length) and a fixed footer.
+ * A lookup reads the footer and index once, then inflates only the blocks it needs.
+ */
+class ChatSegmentStore {
+
+    private static final int MAGIC = 0x43534547; // "CSEG"
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    private static final int FOOTER_BYTES = 16;        // block count, index offset, magic
+    private static final int INDEX_ENTRY_BYTES = 44;   // 4 longs, offset, length
+    private static final String SUFFIX = ".seg";
+    private static final Pattern CONVERSATION_ID = Pattern.compile("\\d+_\\d+");
+
+    private final Path root;
+    private final int blockSize;
+    private final ConcurrentHashMap<String, List<Segment>> segmentsByConversation = new ConcurrentHashMap<>();
+
+    ChatSegmentStore(Path root, int blockSize) {
+        this.root = root;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /** Highest seq held in the cold tier for the conversation, 0 when nothing is archived. */
+    long archivedThroughSeq(String conversationId) {
+        List<Segment> segments = segments(conversationId);
+        return segments.isEmpty() ? 0 : segments.get(segments.size() - 1).lastSeq;
+    }
+
+    /** Up to limit messages with seq > afterSeq, in seq order. */
+    List<ChatMessage> readAfter(String conversationId, long afterSeq, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (Segment segment : segments(conversationId)) {
+            if (segment.lastSeq <= afterSeq) {
+                continue;
+            }
+            for (IndexEntry block : segment.index()) {
+                if (block.lastSeq <= afterSeq) {
+                    continue;
+                }
+                for (ChatMessage message : segment.readBlock(block)) {
+                    if (message.getSeq() > afterSeq) {
+                        result.add(message);
+                        if (result.size() >= limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** The newest (up to limit) messages with seq < beforeSeq, in seq order. */
+    List<ChatMessage> readBefore(String conversationId, long beforeSeq, int limit) {
+        Deque<ChatMessage> result = new ArrayDeque<>();
+        List<Segment> segments = segments(conversationId);
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            Segment segment = segments.get(s);
+            if (segment.firstSeq >= beforeSeq) {
+                continue;
+            }
+            List<IndexEntry> index = segment.index();
+            for (int b = index.size() - 1; b >= 0; b--) {
+                IndexEntry block = index.get(b);
+                if (block.firstSeq >= beforeSeq) {
+                    continue;
+                }
+                List<ChatMessage> messages = segment.readBlock(block);
+                for (int i = messages.size() - 1; i >= 0; i--) {
+                    if (messages.get(i).getSeq() < beforeSeq) {
+                        result.addFirst(messages.get(i));
+                        if (result.size() >= limit) {
+                            return new ArrayList<>(result);
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    Optional<ChatMessage> findById(String conversationId, long id) {
+        for (Segment segment : segments(conversationId)) {
+            for (IndexEntry block : segment.index()) {
+                if (id < block.minId || id > block.maxId) {
+                    continue;
+                }
+                for (ChatMessage message : segment.readBlock(block)) {
+                    if (message.getId() == id) {
+                        return Optional.of(message);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Writes messages (seq-ordered, all newer than the archive) as a new segment and makes it
+     * visible to readers. Only the archive thread appends.
+     */
+    void append(String conversationId, List<ChatMessage> messages) throws IOException {
+        long firstSeq = messages.get(0).getSeq();
+        long lastSeq = messages.get(messages.size() - 1).getSeq();
+        if (firstSeq <= archivedThroughSeq(conversationId)) {
+            throw new IllegalStateException("Segment " + firstSeq + ".." + lastSeq
+                    + " overlaps archive of " + conversationId);
+        }
+
+        Path dir = conversationDir(conversationId);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(String.format("%020d-%020d%s", firstSeq, lastSeq, SUFFIX));
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeSegment(channel, messages);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        Segment segment = new Segment(target, firstSeq, lastSeq);
+        segmentsByConversation.compute(conversationId, (k, existing) -> {
+            if (existing == null) {
+                return scan(dir); // never looked up: the scan already includes it
+            }
+            List<Segment> updated = new ArrayList<>(existing);
+            updated.add(segment);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    private void writeSegment(FileChannel channel, List<ChatMessage> messages) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put(VERSION).flip();
+        writeFully(channel, header);
+        long offset = HEADER_BYTES;
+
+        List<IndexEntry> index = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (int from = 0; from < messages.size(); from += blockSize) {
+                List<ChatMessage> block = messages.subList(from, Math.min(from + blockSize, messages.size()));
+                byte[] compressed = deflate(deflater, encodeBlock(block));
+                writeFully(channel, ByteBuffer.wrap(compressed));
+
+                long minId = Long.MAX_VALUE;
+                long maxId = Long.MIN_VALUE;
+                for (ChatMessage message : block) {
+                    minId = Math.min(minId, message.getId());
+                    maxId = Math.max(maxId, message.getId());
+                }
+                index.add(new IndexEntry(block.get(0).getSeq(), block.get(block.size() - 1).getSeq(),
+                        minId, maxId, offset, compressed.length));
+                offset += compressed.length;
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteBuffer tail = ByteBuffer.allocate(index.size() * INDEX_ENTRY_BYTES + FOOTER_BYTES);
+        for (IndexEntry entry : index) {
+            tail.putLong(entry.firstSeq).putLong(entry.lastSeq).putLong(entry.minId).putLong(entry.maxId)
+                    .putLong(entry.offset).putInt(entry.length);
+        }
+        tail.putInt(index.size()).putLong(offset).putInt(MAGIC).flip();
+        writeFully(channel, tail);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Looked up once per conversation, never-archived ones included (cached as an empty list, which
+    // append replaces); the common case is then a map hit instead of a directory stat
+    private List<Segment> segments(String conversationId) {
+        List<Segment> cached = segmentsByConversation.get(conversationId);
+        if (cached != null) {
+            return cached;
+        }
+        Path dir = conversationDir(conversationId);
+        return segmentsByConversation.computeIfAbsent(conversationId,
+                k -> Files.isDirectory(dir) ? scan(dir) : List.of());
+    }
+
+    private List<Segment> scan(Path dir) {
+        List<Segment> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String[] range = name.substring(0, name.length() - SUFFIX.length()).split("-");
+                segments.add(new Segment(file, Long.parseLong(range[0]), Long.parseLong(range[1])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.sort((a, b) -> Long.compare(a.firstSeq, b.firstSeq));
+        return Collections.unmodifiableList(segments);
+    }
+
+    private Path conversationDir(String conversationId) {
+        if (!CONVERSATION_ID.matcher(conversationId).matches()) {
+            throw new IllegalArgumentException("Invalid conversation id: " + conversationId);
+        }
+        return root.resolve(conversationId);
+    }
+
+    private static byte[] encodeBlock(List<ChatMessage> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(block.size());
+        for (ChatMessage message : block) {
+            out.writeLong(message.getId());
+            out.writeLong(message.getSeq());
+            out.writeLong(message.getSenderId());
+            out.writeLong(message.getReceiverId());
+            writeTime(out, message.getTimestamp());
+            out.writeUTF(message.getStatus().name());
+            writeTime(out, message.getDeliveredAt());
+            writeTime(out, message.getReadAt());
+            // Length-prefixed UTF-8: TEXT content can exceed writeUTF's 64 KB limit
+            byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(content.length);
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ChatMessage> decodeBlock(String conversationId, byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int count = in.readInt();
+        List<ChatMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ChatMessage message = ChatMessage.builder()
+                    .id(in.readLong())
+                    .seq(in.readLong())
+                    .senderId(in.readLong())
+                    .receiverId(in.readLong())
+                    .timestamp(readTime(in))
+                    .status(ChatMessage.MessageStatus.valueOf(in.readUTF()))
+                    .deliveredAt(readTime(in))
+                    .readAt(readTime(in))
+                    .conversationId(conversationId)
+                    .build();
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            message.setContent(new String(content, StandardCharsets.UTF_8));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] data) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated block");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record IndexEntry(long firstSeq, long lastSeq, long minId, long maxId, long offset, int length) {}
+
+    private static final class Segment {
+        private final Path file;
+        private final long firstSeq;
+        private final long lastSeq;
+        private volatile List<IndexEntry> index;
+
+        private Segment(Path file, long firstSeq, long lastSeq) {
+            this.file = file;
+            this.firstSeq = firstSeq;
+            this.lastSeq = lastSeq;
+        }
+
+        // Loaded on first use and kept; the file never changes after it is written
+        private List<IndexEntry> index() {
+            List<IndexEntry> loaded = index;
+            if (loaded != null) {
+                return loaded;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer footer = readFully(channel, channel.size() - FOOTER_BYTES, FOOTER_BYTES);
+                int blocks = footer.getInt();
+                long indexOffset = footer.getLong();
+                if (footer.getInt() != MAGIC) {
+                    throw new IOException("Corrupt segment footer: " + file);
+                }
+                ByteBuffer entries = readFully(channel, indexOffset, blocks * INDEX_ENTRY_BYTES);
+                List<IndexEntry> parsed = new ArrayList<>(blocks);
+                for (int i = 0; i < blocks; i++) {
+                    parsed.add(new IndexEntry(entries.getLong(), entries.getLong(), entries.getLong(),
+                            entries.getLong(), entries.getLong(), entries.getInt()));
+                }
+                index = Collections.unmodifiableList(parsed);
+                return index;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<ChatMessage> readBlock(IndexEntry block) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                byte[] compressed = readFully(channel, block.offset, block.length).array();
+                String conversationId = file.getParent().getFileName().toString();
+                return decodeBlock(conversationId, inflate(compressed));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt block in " + file, e);
+            }
+        }
+
+        private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of segment");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
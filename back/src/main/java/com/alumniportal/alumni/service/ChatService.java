@@ -1,45 +1,63 @@
 package com.alumniportal.alumni.service;
 
+import com.alumniportal.alumni.dto.ChatHistoryPage;
+import com.alumniportal.alumni.dto.ChatMessageDTO;
+import com.alumniportal.alumni.dto.ChatSyncPage;
 import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.exception.ResourceNotFoundException;
 import com.alumniportal.alumni.repository.ChatMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    private static final int MAX_SYNC_PAGE_SIZE = 500;
+    // Archived messages the unpaged endpoint adds in front of the hot table; older ones are only
+    // reachable through the history endpoint
+    private static final int MAX_UNPAGED_ARCHIVED = 200;
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO chat_messages (sender_id, receiver_id, content, timestamp, status, conversation_id, seq) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     private final ChatMessageRepository chatMessageRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatFanoutService chatFanoutService;
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadCounterService unreadCounterService;
+    private final ConversationInboxService conversationInboxService;
+    private final ConversationSequenceService conversationSequenceService;
+    private final ChatArchiveService chatArchiveService;
 
     @Transactional
     public ChatMessage saveMessage(ChatMessage message) {
         try {
-            // Generate conversation ID
-            String conversationId = generateConversationId(
-                    message.getSenderId(),
-                    message.getReceiverId()
-            );
-            message.setConversationId(conversationId);
-
-            // Set timestamp if not set
-            if (message.getTimestamp() == null) {
-                message.setTimestamp(LocalDateTime.now());
-            }
-
-            // Set default status if not set
-            if (message.getStatus() == null) {
-                message.setStatus(ChatMessage.MessageStatus.SENT);
-            }
+            prepareForSave(message);
+            conversationSequenceService.assign(List.of(message));
 
             ChatMessage saved = chatMessageRepository.save(message);
+            countUnread(saved);
+            conversationInboxService.recordMessages(List.of(saved));
             log.info("💾 Message saved: ID={}, From={}, To={}",
                     saved.getId(),
                     saved.getSenderId(),
@@ -52,10 +70,91 @@ public class ChatService {
         }
     }
 
+    /**
+     * Group commit: inserts all messages with one JDBC batch inside a single transaction.
+     * Generated ids are written back onto the given instances, in order.
+     */
+    @Transactional
+    public List<ChatMessage> saveMessages(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        messages.forEach(this::prepareForSave);
+        conversationSequenceService.assign(messages);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_MESSAGE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (ChatMessage message : messages) {
+                    ps.setLong(1, message.getSenderId());
+                    ps.setLong(2, message.getReceiverId());
+                    ps.setString(3, message.getContent());
+                    ps.setObject(4, message.getTimestamp());
+                    ps.setString(5, message.getStatus().name());
+                    ps.setString(6, message.getConversationId());
+                    ps.setLong(7, message.getSeq());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < messages.size()) {
+                        messages.get(i++).setId(keys.getLong(1));
+                    }
+                    if (i != messages.size()) {
+                        throw new IllegalStateException("Expected " + messages.size() + " generated ids, got " + i);
+                    }
+                }
+            }
+            return null;
+        });
+        messages.forEach(this::countUnread);
+        conversationInboxService.recordMessages(messages);
+
+        log.info("💾 Batch of {} messages saved (ids {}..{})",
+                messages.size(), messages.get(0).getId(), messages.get(messages.size() - 1).getId());
+        return messages;
+    }
+
+    private void prepareForSave(ChatMessage message) {
+        // Generate conversation ID
+        message.setConversationId(generateConversationId(message.getSenderId(), message.getReceiverId()));
+
+        // Set timestamp if not set
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now());
+        }
+
+        // Set default status if not set
+        if (message.getStatus() == null) {
+            message.setStatus(ChatMessage.MessageStatus.SENT);
+        }
+    }
+
+    private void countUnread(ChatMessage message) {
+        if (message.getStatus() != ChatMessage.MessageStatus.READ) {
+            unreadCounterService.adjust(message.getReceiverId(), message.getConversationId(), 1);
+        }
+    }
+
+    /**
+     * The whole hot table of the conversation, preceded by at most MAX_UNPAGED_ARCHIVED of the
+     * newest archived messages. Only the archive blocks holding those are decompressed; clients
+     * page further back with {@link #getConversationPage}.
+     */
     @Transactional(readOnly = true)
     public List<ChatMessage> getConversation(Long user1, Long user2) {
         try {
-            List<ChatMessage> messages = chatMessageRepository.findConversationBetweenUsers(user1, user2);
+            String conversationId = generateConversationId(user1, user2);
+            long archivedThrough = chatArchiveService.archivedThroughSeq(conversationId);
+
+            // Cold (archived) tail first, then the hot table
+            List<ChatMessage> messages = new ArrayList<>();
+            if (archivedThrough > 0) {
+                messages.addAll(chatArchiveService.readBefore(conversationId, archivedThrough + 1, MAX_UNPAGED_ARCHIVED));
+            }
+            messages.addAll(withoutArchived(
+                    chatMessageRepository.findConversationBetweenUsers(user1, user2), archivedThrough));
             log.info("📖 Loaded {} messages between {} and {}", messages.size(), user1, user2);
             return messages;
         } catch (Exception e) {
@@ -64,21 +163,176 @@ public class ChatService {
         }
     }
 
+    /**
+     * Keyset-paginated conversation history. Without a cursor the newest page is returned;
+     * with beforeId/afterId the page directly older/newer than that message is returned.
+     * Each page is a bounded range scan on (conversation_id, timestamp, id), independent of depth.
+     */
+    @Transactional(readOnly = true)
+    public ChatHistoryPage getConversationPage(Long user1, Long user2, Long beforeId, Long afterId, int size) {
+        if (beforeId != null && afterId != null) {
+            throw new IllegalArgumentException("Only one of 'before' or 'after' may be given");
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String conversationId = generateConversationId(user1, user2);
+
+        // Archived messages (a seq prefix of the conversation) all precede the hot table
+        long archivedThrough = chatArchiveService.archivedThroughSeq(conversationId);
+
+        List<ChatMessage> rows;
+        boolean ascending = false;
+        if (beforeId != null) {
+            Optional<ChatMessage> hotAnchor = findHotAnchor(beforeId, conversationId);
+            if (hotAnchor.isPresent()) {
+                rows = chatMessageRepository.findInConversationBefore(conversationId,
+                        hotAnchor.get().getTimestamp(), hotAnchor.get().getId(), archivedThrough, limit);
+                rows = continueIntoArchive(rows, conversationId, Long.MAX_VALUE, pageSize + 1);
+            } else {
+                ChatMessage anchor = findColdAnchor(beforeId, conversationId);
+                rows = continueIntoArchive(new ArrayList<>(), conversationId, anchor.getSeq(), pageSize + 1);
+            }
+        } else if (afterId != null) {
+            Optional<ChatMessage> hotAnchor = findHotAnchor(afterId, conversationId);
+            if (hotAnchor.isPresent()) {
+                rows = chatMessageRepository.findInConversationAfter(conversationId,
+                        hotAnchor.get().getTimestamp(), hotAnchor.get().getId(), archivedThrough, limit);
+            } else {
+                ChatMessage anchor = findColdAnchor(afterId, conversationId);
+                rows = new ArrayList<>(chatArchiveService.readAfter(conversationId, anchor.getSeq(), pageSize + 1));
+                if (rows.size() <= pageSize) {
+                    rows.addAll(chatMessageRepository.findOldestInConversation(
+                            conversationId, archivedThrough, PageRequest.of(0, pageSize + 1 - rows.size())));
+                }
+            }
+            ascending = true;
+        } else {
+            rows = chatMessageRepository.findLatestInConversation(conversationId, archivedThrough, limit);
+            rows = continueIntoArchive(rows, conversationId, Long.MAX_VALUE, pageSize + 1);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatMessage> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<ChatMessageDTO> messages = page.stream()
+                .map(ChatMessageDTO::fromEntity)
+                .collect(Collectors.toList());
+        if (!ascending) {
+            Collections.reverse(messages);
+        }
+
+        log.info("📖 Loaded page of {} messages in {} (before={}, after={}, hasMore={})",
+                messages.size(), conversationId, beforeId, afterId, hasMore);
+
+        return ChatHistoryPage.builder()
+                .messages(messages)
+                .oldestId(messages.isEmpty() ? null : messages.get(0).getId())
+                .newestId(messages.isEmpty() ? null : messages.get(messages.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Gap-fill for reconnecting clients: the messages after the last seq the client has seen,
+     * oldest first. Clients call again with nextAfterSeq until hasMore is false.
+     */
+    @Transactional(readOnly = true)
+    public ChatSyncPage syncConversation(String conversationId, long afterSeq, int size) {
+        if (afterSeq < 0) {
+            throw new IllegalArgumentException("afterSeq must not be negative");
+        }
+        long latestSeq = conversationSequenceService.currentSeq(conversationId);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_SYNC_PAGE_SIZE));
+        long archivedThrough = chatArchiveService.archivedThroughSeq(conversationId);
+
+        List<ChatMessage> rows = new ArrayList<>();
+        if (afterSeq < archivedThrough) {
+            rows.addAll(chatArchiveService.readAfter(conversationId, afterSeq, pageSize + 1));
+        }
+        if (rows.size() <= pageSize) {
+            rows.addAll(chatMessageRepository.findInConversationAfterSeq(
+                    conversationId, Math.max(afterSeq, archivedThrough), PageRequest.of(0, pageSize + 1 - rows.size())));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatMessageDTO> messages = (hasMore ? rows.subList(0, pageSize) : rows).stream()
+                .map(ChatMessageDTO::fromEntity)
+                .collect(Collectors.toList());
+
+        log.info("🔄 Sync {} after seq {}: {} messages (latest={}, hasMore={})",
+                conversationId, afterSeq, messages.size(), latestSeq, hasMore);
+
+        return ChatSyncPage.builder()
+                .conversationId(conversationId)
+                .messages(messages)
+                .nextAfterSeq(messages.isEmpty() ? afterSeq : messages.get(messages.size() - 1).getSeq())
+                .latestSeq(latestSeq)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private Optional<ChatMessage> findHotAnchor(Long messageId, String conversationId) {
+        return chatMessageRepository.findById(messageId)
+                .filter(m -> conversationId.equals(m.getConversationId()));
+    }
+
+    private ChatMessage findColdAnchor(Long messageId, String conversationId) {
+        return chatArchiveService.findById(conversationId, messageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Message " + messageId + " not found in conversation " + conversationId));
+    }
+
+    /**
+     * Tops up a newest-first page from the archive once the hot rows run out.
+     */
+    private List<ChatMessage> continueIntoArchive(List<ChatMessage> newestFirst, String conversationId,
+                                                  long beforeSeq, int wanted) {
+        if (newestFirst.size() >= wanted) {
+            return newestFirst;
+        }
+        List<ChatMessage> cold = chatArchiveService.readBefore(conversationId, beforeSeq, wanted - newestFirst.size());
+        if (cold.isEmpty()) {
+            return newestFirst;
+        }
+        List<ChatMessage> rows = new ArrayList<>(newestFirst);
+        for (int i = cold.size() - 1; i >= 0; i--) {
+            rows.add(cold.get(i));
+        }
+        return rows;
+    }
+
+    // Hot rows already in the archive linger only if an archival delete did not commit
+    private List<ChatMessage> withoutArchived(List<ChatMessage> hot, long archivedThrough) {
+        if (archivedThrough == 0) {
+            return hot;
+        }
+        return hot.stream()
+                .filter(m -> m.getSeq() == null || m.getSeq() > archivedThrough)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public void markMessagesAsRead(Long senderId, Long receiverId) {
         try {
-            List<ChatMessage> unreadMessages = chatMessageRepository.findUnreadMessages(senderId, receiverId);
+            // Pin the upper bound first so the receipt stays exact if new messages arrive meanwhile
+            Long upToId = chatMessageRepository.findLatestUnreadMessageId(senderId, receiverId);
+            if (upToId == null) {
+                return;
+            }
 
-            for (ChatMessage message : unreadMessages) {
-                message.setStatus(ChatMessage.MessageStatus.READ);
-                message.setReadAt(LocalDateTime.now());
-                chatMessageRepository.save(message);
+            LocalDateTime readAt = LocalDateTime.now();
+            int updated = chatMessageRepository.markMessagesAsRead(senderId, receiverId, upToId, readAt);
+            String conversationId = generateConversationId(senderId, receiverId);
+            // Every row moved to READ was unread (SENT or DELIVERED)
+            unreadCounterService.adjust(receiverId, conversationId, -updated);
+            conversationInboxService.recordRead(conversationId, senderId, receiverId, upToId, updated);
 
-                // Notify sender that message was read
-                notifyStatusUpdate(message, ChatMessage.MessageStatus.READ);
-            }
+            // One aggregated receipt for the whole range instead of a frame per message
+            notifyReadUpTo(senderId, receiverId, upToId, updated, readAt);
 
-            log.info("✅ {} messages marked as read from {} to {}", unreadMessages.size(), senderId, receiverId);
+            log.info("✅ {} messages marked as read from {} to {} (up to {})", updated, senderId, receiverId, upToId);
         } catch (Exception e) {
             log.error("❌ Error marking messages as read: {}", e.getMessage(), e);
         }
@@ -93,6 +347,7 @@ public class ChatService {
                     message.setStatus(ChatMessage.MessageStatus.DELIVERED);
                     message.setDeliveredAt(LocalDateTime.now());
                     chatMessageRepository.save(message);
+                    conversationInboxService.recordDelivered(List.of(message));
 
                     // Notify sender that message was delivered
                     notifyStatusUpdate(message, ChatMessage.MessageStatus.DELIVERED);
@@ -105,13 +360,74 @@ public class ChatService {
         }
     }
 
+    /**
+     * Batched SENT -> DELIVERED transition. Takes message id -> acknowledging receiver id and
+     * ignores ids whose receiver does not match or that already moved past SENT.
+     * Returns the messages that actually transitioned, for {@link #notifyDelivered}.
+     */
+    @Transactional
+    public List<ChatMessage> markMessagesAsDelivered(Map<Long, Long> receiverByMessageId) {
+        if (receiverByMessageId.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ChatMessage> delivered = chatMessageRepository.findSentMessagesByIdIn(receiverByMessageId.keySet())
+                .stream()
+                .filter(m -> m.getReceiverId().equals(receiverByMessageId.get(m.getId())))
+                .collect(Collectors.toList());
+        if (delivered.isEmpty()) {
+            return delivered;
+        }
+
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        List<Long> ids = delivered.stream().map(ChatMessage::getId).collect(Collectors.toList());
+        chatMessageRepository.markMessagesAsDelivered(ids, deliveredAt);
+
+        // Delivered messages stay unread until READ, so the unread counters do not change
+        delivered.forEach(m -> {
+            m.setStatus(ChatMessage.MessageStatus.DELIVERED);
+            m.setDeliveredAt(deliveredAt);
+        });
+        conversationInboxService.recordDelivered(delivered);
+        log.info("✅ {} messages marked as delivered", delivered.size());
+        return delivered;
+    }
+
+    // True if the message exists and was sent to receiverId
     @Transactional(readOnly = true)
+    public boolean isAddressedTo(Long messageId, Long receiverId) {
+        return chatMessageRepository.findById(messageId)
+                .map(m -> m.getReceiverId().equals(receiverId))
+                .orElse(false);
+    }
+
+    /**
+     * Sends one coalesced DELIVERED notification per sender instead of one frame per message.
+     */
+    public void notifyDelivered(List<ChatMessage> delivered) {
+        Map<Long, List<Long>> idsBySender = new LinkedHashMap<>();
+        for (ChatMessage message : delivered) {
+            idsBySender.computeIfAbsent(message.getSenderId(), k -> new ArrayList<>()).add(message.getId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        idsBySender.forEach((senderId, messageIds) -> {
+            try {
+                chatFanoutService.sendToUser(
+                        senderId.toString(),
+                        "/queue/message-status",
+                        new DeliveryStatusUpdate(messageIds, ChatMessage.MessageStatus.DELIVERED, now)
+                );
+            } catch (Exception e) {
+                log.error("❌ Error notifying delivery to sender {}: {}", senderId, e.getMessage());
+            }
+        });
+    }
+
     public long getUnreadMessageCount(Long userId) {
         try {
-            long count = chatMessageRepository.countByReceiverIdAndStatus(
-                    userId,
-                    ChatMessage.MessageStatus.SENT
-            );
+            // Served from the in-memory counters; only the first call per user touches the DB
+            long count = unreadCounterService.getUnreadCount(userId);
             log.info("🔔 Unread count for user {}: {}", userId, count);
             return count;
         } catch (Exception e) {
@@ -120,6 +436,10 @@ public class ChatService {
         }
     }
 
+    public Map<String, Long> getUnreadCountsByConversation(Long userId) {
+        return unreadCounterService.getUnreadCountsByConversation(userId);
+    }
+
     private void notifyStatusUpdate(ChatMessage message, ChatMessage.MessageStatus newStatus) {
         try {
             // Notify the sender about status update
@@ -131,7 +451,7 @@ public class ChatService {
                     LocalDateTime.now()
             );
 
-            messagingTemplate.convertAndSendToUser(
+            chatFanoutService.sendToUser(
                     message.getSenderId().toString(),
                     "/queue/message-status",
                     statusUpdate
@@ -145,6 +465,23 @@ public class ChatService {
         }
     }
 
+    private void notifyReadUpTo(Long senderId, Long readerId, Long upToId, int count, LocalDateTime readAt) {
+        try {
+            var receipt = new ReadReceiptUpdate(upToId, ChatMessage.MessageStatus.READ, readAt, true, readerId, count);
+
+            chatFanoutService.sendToUser(
+                    senderId.toString(),
+                    "/queue/message-status",
+                    receipt
+            );
+
+            log.info("📢 Notified sender {} that messages up to {} were read by {}", senderId, upToId, readerId);
+
+        } catch (Exception e) {
+            log.error("❌ Error notifying read receipt: {}", e.getMessage());
+        }
+    }
+
     private String generateConversationId(Long user1, Long user2) {
         Long minId = Math.min(user1, user2);
         Long maxId = Math.max(user1, user2);
@@ -153,4 +490,11 @@ public class ChatService {
 
     // DTO for status updates
     public record MessageStatusUpdate(Long messageId, ChatMessage.MessageStatus status, LocalDateTime timestamp) {}
+
+    // Coalesced status update for several messages from the same sender
+    public record DeliveryStatusUpdate(List<Long> messageIds, ChatMessage.MessageStatus status, LocalDateTime timestamp) {}
+
+    // Aggregated receipt: every message from the sender to readerId with id <= messageId now has this status
+    public record ReadReceiptUpdate(Long messageId, ChatMessage.MessageStatus status, LocalDateTime timestamp,
+                                    boolean upTo, Long readerId, int count) {}
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.alumniportal.alumni.service;
+
+/**
+ * Published on every node when a user gets their first receiving session anywhere in the cluster.
+ */
+public record ChatUserOnlineEvent(String userId) {}
@@ -0,0 +1,159 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind stage for chat persistence. Incoming messages are queued and a single
+ * writer thread flushes them in size- or time-bounded batches through {@link ChatService#saveMessages},
+ * so many messages share one INSERT batch and one commit. The returned future completes only once
+ * the batch is durable; futures are completed on the writer thread in submission order.
+ * When disabled, messages are saved synchronously exactly as before.
+ */
+@Service
+@Slf4j
+public class ChatWriteBehindQueue {
+
+    private final ChatService chatService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatWriteBehindQueue(ChatService chatService,
+                                @Value("${app.chat.write-behind.enabled:false}") boolean enabled,
+                                @Value("${app.chat.write-behind.batch-size:100}") int batchSize,
+                                @Value("${app.chat.write-behind.max-delay-ms:10}") long maxDelayMs,
+                                @Value("${app.chat.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.chatService = chatService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayMs = Math.max(0, maxDelayMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "chat-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("✅ Chat write-behind enabled (batchSize={}, maxDelayMs={})", batchSize, maxDelayMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Queues a message for persistence. Blocks the caller when the queue is full, which pushes
+     * back on the inbound channel instead of dropping messages.
+     */
+    public CompletableFuture<ChatMessage> submit(ChatMessage message) {
+        if (!enabled || !running) {
+            try {
+                return CompletableFuture.completedFuture(chatService.saveMessage(message));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        PendingMessage pending = new PendingMessage(message, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future().completeExceptionally(e);
+        }
+        return pending.future();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the oldest message has waited maxDelayMs
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested: flush whatever is left before exiting
+                queue.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        List<ChatMessage> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message());
+        }
+
+        try {
+            chatService.saveMessages(messages);
+            for (PendingMessage pending : batch) {
+                pending.future().complete(pending.message());
+            }
+        } catch (Exception e) {
+            log.error("❌ Batch insert of {} messages failed, retrying individually: {}", batch.size(), e.getMessage());
+            // The batch transaction rolled back; save one by one so a single bad row does not fail the rest
+            for (PendingMessage pending : batch) {
+                try {
+                    pending.message().setId(null);
+                    pending.future().complete(chatService.saveMessage(pending.message()));
+                } catch (Exception ex) {
+                    pending.future().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private record PendingMessage(ChatMessage message, CompletableFuture<ChatMessage> future) {}
+}
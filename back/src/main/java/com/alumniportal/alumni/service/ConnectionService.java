@@ -1,5 +1,7 @@
 package com.alumniportal.alumni.service;
 
+import com.alumniportal.alumni.dto.AlumniSuggestion;
+import com.alumniportal.alumni.dto.ProfileSnapshot;
 import com.alumniportal.alumni.entity.Connection;
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.repository.ConnectionRepository;
@@ -19,6 +21,12 @@ public class ConnectionService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private AlumniSuggestionService alumniSuggestionService;
+
     // --------------------- MAIN LOGIC ---------------------
 
     public void sendConnectionRequest(Long studentId, Long alumniId) {
@@ -170,26 +178,37 @@ public class ConnectionService {
     }
 
     public List<User> getAllAlumni() {
-        return userRepository.findAll().stream()
-                .filter(u -> u.getRole() != null && "ALUMNI".equalsIgnoreCase(u.getRole().getName()))
-                .collect(Collectors.toList());
+        return userRepository.findByRoleName("ALUMNI");
     }
 
-    public List<User> getSuggestedAlumni(Long studentId) {
-        User student = userRepository.findById(studentId)
+    // Best-ranked alumni the student has no connection with yet; profiles come from the snapshot
+    // cache, the ones it misses in a single query
+    public List<AlumniSuggestion> getSuggestedAlumni(Long studentId, int limit) {
+        List<AlumniSuggestionService.Suggestion> ranked = alumniSuggestionService.suggest(studentId, limit)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        List<User> allAlumni = userRepository.findAll().stream()
-                .filter(u -> u.getRole() != null && "ALUMNI".equalsIgnoreCase(u.getRole().getName()))
-                .collect(Collectors.toList());
-
-        List<Connection> existing = connectionRepository.findByStudent(student);
-        Set<Long> excluded = existing.stream()
-                .map(c -> c.getAlumni().getId())
-                .collect(Collectors.toSet());
-
-        return allAlumni.stream()
-                .filter(a -> !excluded.contains(a.getId()))
+        Map<Long, ProfileSnapshot> profiles = profileService.getProfileSnapshots(ranked.stream()
+                .map(AlumniSuggestionService.Suggestion::alumniId)
+                .collect(Collectors.toList()));
+
+        return ranked.stream()
+                .map(s -> Optional.ofNullable(profiles.get(s.alumniId()))
+                        .map(p -> AlumniSuggestion.builder()
+                                .userId(p.userId())
+                                .email(p.accountEmail())
+                                .firstName(p.firstName())
+                                .lastName(p.lastName())
+                                .profilePhoto(p.profilePhoto())
+                                .branch(p.branch())
+                                .batch(p.batch())
+                                .graduationYear(p.graduationYear())
+                                .degree(p.degree())
+                                .currentCompany(p.currentCompany())
+                                .position(p.position())
+                                .score(s.score())
+                                .mutualConnections(s.mutualConnections())
+                                .build())
+                        .orElse(null))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -204,76 +223,50 @@ public class ConnectionService {
 
     // NEW: Get student profile by ID
     public StudentDTO getStudentProfileDTO(Long studentId) {
-        User student = userRepository.findById(studentId)
+        ProfileSnapshot profile = profileService.getProfileSnapshot(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        var profile = student.getProfile();
-        String firstName = profile != null ? profile.getFirstName() : "";
-        String lastName = profile != null ? profile.getLastName() : "";
-        String profilePhoto = profile != null ? profile.getProfilePhoto() : null;
-        String about = profile != null ? profile.getAbout() : "";
-        String branch = profile != null ? profile.getBranch() : "";
-        String batch = profile != null ? profile.getBatch() : "";
-        String degree = profile != null ? profile.getDegree() : "";
-        String graduationYear = profile != null ? profile.getGraduationYear() : "";
-        String currentCompany = profile != null ? profile.getCurrentCompany() : "";
-        String position = profile != null ? profile.getPosition() : "";
-        String phone = profile != null ? profile.getPhone() : "";
-
         return new StudentDTO(
-                student.getId(),
-                student.getEmail(),
-                firstName,
-                lastName,
-                profilePhoto,
-                about,
-                branch,
-                batch,
-                degree,
-                graduationYear,
-                currentCompany,
-                position,
-                phone
+                profile.userId(),
+                profile.accountEmail(),
+                profile.firstName(),
+                profile.lastName(),
+                profile.profilePhoto(),
+                profile.about(),
+                profile.branch(),
+                profile.batch(),
+                profile.degree(),
+                profile.graduationYear(),
+                profile.currentCompany(),
+                profile.position(),
+                profile.phone()
         );
     }
 
     // NEW: Get alumni profile by ID - UPDATED to work with current Profile entity
     public AlumniDTO getAlumniProfileDTO(Long alumniId) {
-        User alumni = userRepository.findById(alumniId)
+        ProfileSnapshot profile = profileService.getProfileSnapshot(alumniId)
                 .orElseThrow(() -> new RuntimeException("Alumni not found"));
 
-        var profile = alumni.getProfile();
-        String firstName = profile != null ? profile.getFirstName() : "";
-        String lastName = profile != null ? profile.getLastName() : "";
-        String profilePhoto = profile != null ? profile.getProfilePhoto() : null;
-        String about = profile != null ? profile.getAbout() : "";
-        String branch = profile != null ? profile.getBranch() : "";
-        String batch = profile != null ? profile.getBatch() : "";
-        String degree = profile != null ? profile.getDegree() : "";
-        String graduationYear = profile != null ? profile.getGraduationYear() : "";
-        String currentCompany = profile != null ? profile.getCurrentCompany() : "";
-        String position = profile != null ? profile.getPosition() : "";
-        String phone = profile != null ? profile.getPhone() : "";
-
         // These fields don't exist in current Profile entity, so set them as empty
         String industry = "";
         String experience = "";
         String skills = "";
 
         return new AlumniDTO(
-                alumni.getId(),
-                alumni.getEmail(),
-                firstName,
-                lastName,
-                profilePhoto,
-                about,
-                branch,
-                batch,
-                degree,
-                graduationYear,
-                currentCompany,
-                position,
-                phone,
+                profile.userId(),
+                profile.accountEmail(),
+                profile.firstName(),
+                profile.lastName(),
+                profile.profilePhoto(),
+                profile.about(),
+                profile.branch(),
+                profile.batch(),
+                profile.degree(),
+                profile.graduationYear(),
+                profile.currentCompany(),
+                profile.position(),
+                profile.phone(),
                 industry,
                 experience,
                 skills
@@ -0,0 +1,60 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.Connection;
+import com.alumniportal.alumni.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Feeds every insert, update and delete of a Connection row to {@link AlumniSuggestionService},
+ * whichever service or repository call made it. Applied after commit (right away outside a
+ * transaction), so a rolled-back write never reaches the model.
+ * Hibernate creates this listener through Spring while building the EntityManagerFactory.
+ */
+public class ConnectionSuggestionListener {
+
+    private final AlumniSuggestionService alumniSuggestionService;
+
+    // Lazy: the listener is built with the EntityManagerFactory, before the service should be
+    public ConnectionSuggestionListener(@Lazy AlumniSuggestionService alumniSuggestionService) {
+        this.alumniSuggestionService = alumniSuggestionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Connection connection) {
+        Long studentId = idOf(connection.getStudent());
+        Long alumniId = idOf(connection.getAlumni());
+        Connection.ConnectionStatus status = connection.getStatus();
+        afterCommit(() -> alumniSuggestionService.onConnectionSaved(studentId, alumniId, status));
+    }
+
+    @PostRemove
+    public void onRemoved(Connection connection) {
+        Long studentId = idOf(connection.getStudent());
+        Long alumniId = idOf(connection.getAlumni());
+        afterCommit(() -> alumniSuggestionService.onConnectionRemoved(studentId, alumniId));
+    }
+
+    // The id of a lazy association is read from its proxy without loading the user
+    private static Long idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
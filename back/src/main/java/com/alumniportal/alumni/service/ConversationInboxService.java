@@ -0,0 +1,181 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.InboxEntryDTO;
+import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.entity.Conversation;
+import com.alumniportal.alumni.repository.ConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the denormalized {@code conversations} inbox rows. All writes are single atomic
+ * statements (upsert / conditional update), so concurrent messages in the same conversation
+ * never lose an unread increment or regress the last-message fields. Callers run these inside
+ * their own chat transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationInboxService {
+
+    private static final int PREVIEW_LENGTH = 100;
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+
+    // last_message_id is assigned last: MySQL evaluates ON DUPLICATE KEY assignments left to right
+    private static final String UPSERT_SQL =
+            "INSERT INTO conversations (conversation_id, user1_id, user2_id, last_message_id, last_sender_id, " +
+            "last_message_preview, last_message_status, last_message_at, user1_unread, user2_unread) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "user1_unread = user1_unread + VALUES(user1_unread), " +
+            "user2_unread = user2_unread + VALUES(user2_unread), " +
+            "last_sender_id = CASE WHEN VALUES(last_message_id) > last_message_id " +
+            "THEN VALUES(last_sender_id) ELSE last_sender_id END, " +
+            "last_message_preview = CASE WHEN VALUES(last_message_id) > last_message_id " +
+            "THEN VALUES(last_message_preview) ELSE last_message_preview END, " +
+            "last_message_status = CASE WHEN VALUES(last_message_id) > last_message_id " +
+            "THEN VALUES(last_message_status) ELSE last_message_status END, " +
+            "last_message_at = CASE WHEN VALUES(last_message_id) > last_message_id " +
+            "THEN VALUES(last_message_at) ELSE last_message_at END, " +
+            "last_message_id = GREATEST(last_message_id, VALUES(last_message_id))";
+
+    private static final String READ_SQL =
+            "UPDATE conversations SET " +
+            "user1_unread = CASE WHEN user1_id = ? THEN GREATEST(0, user1_unread - ?) ELSE user1_unread END, " +
+            "user2_unread = CASE WHEN user2_id = ? THEN GREATEST(0, user2_unread - ?) ELSE user2_unread END, " +
+            "last_message_status = CASE WHEN last_sender_id = ? AND last_message_id <= ? " +
+            "THEN 'READ' ELSE last_message_status END " +
+            "WHERE conversation_id = ?";
+
+    private static final String DELIVERED_SQL =
+            "UPDATE conversations SET last_message_status = 'DELIVERED' " +
+            "WHERE conversation_id = ? AND last_message_id = ? AND last_message_status = 'SENT'";
+
+    // Rebuilds inbox rows from chat history; used once when the table is first introduced
+    private static final String BACKFILL_SQL =
+            "INSERT INTO conversations (conversation_id, user1_id, user2_id, last_message_id, last_sender_id, " +
+            "last_message_preview, last_message_status, last_message_at, user1_unread, user2_unread) " +
+            "SELECT m.conversation_id, LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id), " +
+            "m.id, m.sender_id, LEFT(m.content, " + PREVIEW_LENGTH + "), m.status, m.timestamp, " +
+            "(SELECT COUNT(*) FROM chat_messages u WHERE u.conversation_id = m.conversation_id " +
+            "AND u.receiver_id = LEAST(m.sender_id, m.receiver_id) AND u.status <> 'READ'), " +
+            "(SELECT COUNT(*) FROM chat_messages u WHERE u.conversation_id = m.conversation_id " +
+            "AND u.receiver_id = GREATEST(m.sender_id, m.receiver_id) AND u.status <> 'READ') " +
+            "FROM chat_messages m " +
+            "WHERE m.id IN (SELECT MAX(l.id) FROM chat_messages l GROUP BY l.conversation_id)";
+
+    // One backward range scan per participant index, each cut at the page end, then a sort of
+    // at most twice that many rows; an OR over both columns would read and filesort every row.
+    // A self-conversation comes from the first branch only. The limits are inlined (computed
+    // ints): bound LIMITs inside a cached subquery are not re-evaluated by every driver
+    private static final String INBOX_SQL =
+            "SELECT * FROM (" +
+            "(SELECT * FROM conversations WHERE user1_id = ? ORDER BY last_message_at DESC LIMIT %1$d) " +
+            "UNION ALL " +
+            "(SELECT * FROM conversations WHERE user2_id = ? AND user1_id <> ? " +
+            "ORDER BY last_message_at DESC LIMIT %1$d)" +
+            ") inbox ORDER BY last_message_at DESC LIMIT %2$d OFFSET %3$d";
+
+    private static final RowMapper<Conversation> CONVERSATION_ROW = (rs, rowNum) -> {
+        Timestamp lastMessageAt = rs.getTimestamp("last_message_at");
+        String status = rs.getString("last_message_status");
+        return Conversation.builder()
+                .conversationId(rs.getString("conversation_id"))
+                .user1Id(rs.getLong("user1_id"))
+                .user2Id(rs.getLong("user2_id"))
+                .lastMessageId(rs.getObject("last_message_id", Long.class))
+                .lastSenderId(rs.getObject("last_sender_id", Long.class))
+                .lastMessagePreview(rs.getString("last_message_preview"))
+                .lastMessageStatus(status == null ? null : ChatMessage.MessageStatus.valueOf(status))
+                .lastMessageAt(lastMessageAt == null ? null : lastMessageAt.toLocalDateTime())
+                .user1Unread(rs.getInt("user1_unread"))
+                .user2Unread(rs.getInt("user2_unread"))
+                .build();
+    };
+
+    private final ConversationRepository conversationRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        try {
+            if (conversationRepository.count() > 0) {
+                return;
+            }
+            int rows = jdbcTemplate.update(BACKFILL_SQL);
+            if (rows > 0) {
+                log.info("📥 Backfilled {} inbox conversations from chat history", rows);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error backfilling conversations: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies newly persisted messages: bumps the receiver's unread count and advances the
+     * last-message fields. One batched upsert for the whole list.
+     */
+    public void recordMessages(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, messages, messages.size(), (ps, message) -> {
+            long user1 = Math.min(message.getSenderId(), message.getReceiverId());
+            long user2 = Math.max(message.getSenderId(), message.getReceiverId());
+            boolean unread = message.getStatus() != ChatMessage.MessageStatus.READ;
+            ps.setString(1, message.getConversationId());
+            ps.setLong(2, user1);
+            ps.setLong(3, user2);
+            ps.setLong(4, message.getId());
+            ps.setLong(5, message.getSenderId());
+            ps.setString(6, preview(message.getContent()));
+            ps.setString(7, message.getStatus().name());
+            ps.setTimestamp(8, Timestamp.valueOf(message.getTimestamp()));
+            ps.setInt(9, unread && message.getReceiverId() == user1 ? 1 : 0);
+            ps.setInt(10, unread && message.getReceiverId() == user2 && user1 != user2 ? 1 : 0);
+        });
+    }
+
+    public void recordRead(String conversationId, Long senderId, Long readerId, Long upToId, int count) {
+        jdbcTemplate.update(READ_SQL, readerId, count, readerId, count, senderId, upToId, conversationId);
+    }
+
+    public void recordDelivered(List<ChatMessage> delivered) {
+        if (delivered.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELIVERED_SQL, delivered, delivered.size(), (ps, message) -> {
+            ps.setString(1, message.getConversationId());
+            ps.setLong(2, message.getId());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<InboxEntryDTO> getInbox(Long userId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+        int offset = Math.max(0, page) * pageSize;
+        String sql = String.format(INBOX_SQL, offset + pageSize, pageSize, offset);
+        return jdbcTemplate.query(sql, CONVERSATION_ROW, userId, userId, userId)
+                .stream()
+                .map(c -> InboxEntryDTO.fromEntity(c, userId))
+                .collect(Collectors.toList());
+    }
+
+    private String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+}
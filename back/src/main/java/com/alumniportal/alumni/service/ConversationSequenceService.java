@@ -0,0 +1,136 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns monotonically increasing per-conversation sequence numbers to chat messages.
+ * Allocation locks the conversation's counter row (SELECT ... FOR UPDATE) until the caller's
+ * transaction commits, so writers in the same conversation are serialized while different
+ * conversations proceed in parallel. The row is upserted before it is locked: a locking read of
+ * a missing row takes an InnoDB gap lock, and two such transactions then deadlock on their inserts.
+ *
+ * Messages stored before sequencing existed are numbered in (timestamp, id) order, once per
+ * conversation: at startup, or earlier if the conversation allocates or is archived first.
+ * Reading the current seq never locks or numbers anything.
+ */
+@Service
+@Slf4j
+public class ConversationSequenceService {
+
+    private static final String CREATE_SQL =
+            "INSERT INTO conversation_sequences (conversation_id, last_seq) VALUES (?, 0) " +
+            "ON DUPLICATE KEY UPDATE last_seq = last_seq";
+
+    private static final String LOCK_SQL =
+            "SELECT last_seq FROM conversation_sequences WHERE conversation_id = ? FOR UPDATE";
+
+    private static final String ADVANCE_SQL =
+            "UPDATE conversation_sequences SET last_seq = ? WHERE conversation_id = ?";
+
+    private static final String CURRENT_SQL =
+            "SELECT last_seq FROM conversation_sequences WHERE conversation_id = ?";
+
+    private static final String LEGACY_IDS_SQL =
+            "SELECT id FROM chat_messages WHERE conversation_id = ? AND seq IS NULL ORDER BY timestamp, id";
+
+    private static final String SET_SEQ_SQL = "UPDATE chat_messages SET seq = ? WHERE id = ?";
+
+    private static final String UNSEQUENCED_SQL =
+            "SELECT DISTINCT conversation_id FROM chat_messages WHERE seq IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ConversationSequenceService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Numbers legacy messages, one short transaction per conversation. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void sequenceLegacyMessages() {
+        try {
+            List<String> conversationIds = jdbcTemplate.queryForList(UNSEQUENCED_SQL, String.class);
+            for (String conversationId : conversationIds) {
+                transactionTemplate.executeWithoutResult(status -> ensureSequenced(conversationId));
+            }
+        } catch (Exception e) {
+            log.error("❌ Error numbering existing chat messages: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sets seq on each message, in list order within each conversation. Must run inside the
+     * transaction that inserts the messages.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void assign(List<ChatMessage> messages) {
+        // Lock counters in a fixed order so concurrent multi-conversation batches cannot deadlock
+        Map<String, List<ChatMessage>> byConversation = new TreeMap<>();
+        for (ChatMessage message : messages) {
+            byConversation.computeIfAbsent(message.getConversationId(), k -> new ArrayList<>()).add(message);
+        }
+
+        byConversation.forEach((conversationId, batch) -> {
+            long seq = lockCounter(conversationId);
+            for (ChatMessage message : batch) {
+                message.setSeq(++seq);
+            }
+            jdbcTemplate.update(ADVANCE_SQL, seq, conversationId);
+        });
+    }
+
+    /** Latest seq of the conversation, 0 if it has none yet. A plain read: no lock, no numbering. */
+    public long currentSeq(String conversationId) {
+        List<Long> current = jdbcTemplate.queryForList(CURRENT_SQL, Long.class, conversationId);
+        return current.isEmpty() ? 0 : current.get(0);
+    }
+
+    /**
+     * Numbers the conversation's legacy messages if it has never been sequenced, and returns its
+     * latest seq. Locks the counter row until the caller's transaction commits.
+     */
+    @Transactional
+    public long ensureSequenced(String conversationId) {
+        long seq = lockCounter(conversationId);
+        jdbcTemplate.update(ADVANCE_SQL, seq, conversationId);
+        return seq;
+    }
+
+    private long lockCounter(String conversationId) {
+        jdbcTemplate.update(CREATE_SQL, conversationId);
+        long seq = jdbcTemplate.queryForObject(LOCK_SQL, Long.class, conversationId);
+        if (seq == 0) {
+            seq = numberLegacyMessages(conversationId);
+        }
+        return seq;
+    }
+
+    private long numberLegacyMessages(String conversationId) {
+        List<Long> ids = jdbcTemplate.queryForList(LEGACY_IDS_SQL, Long.class, conversationId);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            args.add(new Object[]{i + 1L, ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate(SET_SEQ_SQL, args);
+        log.info("🔢 Numbered {} existing messages in conversation {}", ids.size(), conversationId);
+        return ids.size();
+    }
+}
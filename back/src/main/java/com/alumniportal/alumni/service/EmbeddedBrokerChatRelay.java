@@ -0,0 +1,191 @@
+package com.alumniportal.alumni.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Relay backed by the embedded {@link LocalRelayBroker}. Exactly one node sets
+ * app.chat.relay.broker.embedded=true and hosts the broker; every node connects to
+ * app.chat.relay.broker.host:port, so several backend processes on one machine behave like a
+ * cluster. The connection is re-established with backoff and local registrations are replayed.
+ * The set of online users is mirrored from the broker's ONLINE / OFFLINE frames.
+ *
+ * Nothing here blocks on the socket: register, unregister and publish only queue a frame for the
+ * connection's {@link RelayWriter}. Frames published while disconnected, or dropped when the
+ * queue overflows (which also drops the connection), are not relayed; clients catch up through
+ * sync and the offline queue.
+ */
+@Service
+@ConditionalOnProperty(name = "app.chat.relay.type", havingValue = "broker")
+@Slf4j
+public class EmbeddedBrokerChatRelay implements ChatRelay {
+
+    private final String nodeId;
+    private final String host;
+    private final int port;
+    private final int queueCapacity;
+    private final LocalRelayBroker embeddedBroker;
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+    private final Set<String> onlineUsers = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    // Null while disconnected
+    private volatile RelayWriter out;
+
+    public EmbeddedBrokerChatRelay(@Value("${app.chat.node-id:}") String nodeId,
+                                   @Value("${app.chat.relay.broker.host:localhost}") String host,
+                                   @Value("${app.chat.relay.broker.port:61700}") int port,
+                                   @Value("${app.chat.relay.broker.embedded:false}") boolean embedded,
+                                   @Value("${app.chat.relay.broker.queue-capacity:10000}") int queueCapacity)
+            throws IOException {
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.host = host;
+        this.port = port;
+        this.queueCapacity = queueCapacity;
+        this.embeddedBroker = embedded ? new LocalRelayBroker(port, queueCapacity) : null;
+    }
+
+    @Override
+    public void start(Consumer<RelayFrame> localDelivery, Consumer<String> userOnline) {
+        running = true;
+        Thread reader = new Thread(() -> connectLoop(localDelivery, userOnline), "chat-relay-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        running = false;
+        RelayWriter current = out;
+        if (current != null) {
+            current.close();
+        }
+        if (embeddedBroker != null) {
+            embeddedBroker.close();
+        }
+    }
+
+    @Override
+    public void register(String userId) {
+        localUsers.add(userId);
+        send(LocalRelayBroker.REGISTER, userId);
+    }
+
+    @Override
+    public void unregister(String userId) {
+        localUsers.remove(userId);
+        send(LocalRelayBroker.UNREGISTER, userId);
+    }
+
+    @Override
+    public boolean isOnline(String userId) {
+        return localUsers.contains(userId) || onlineUsers.contains(userId);
+    }
+
+    @Override
+    public void publish(RelayFrame frame) {
+        RelayWriter current = out;
+        if (current == null) {
+            log.warn("⚠️ Chat relay not connected; frame for user {} not relayed", frame.userId());
+            return;
+        }
+        current.offer(LocalRelayBroker.frame(LocalRelayBroker.PUBLISH,
+                frame.userId(), frame.destination(), frame.payload()));
+    }
+
+    private void send(byte type, String userId) {
+        RelayWriter current = out;
+        if (current == null) {
+            return; // replayed from localUsers on (re)connect
+        }
+        // Ordered against the replay in connectLoop
+        synchronized (current) {
+            current.offer(LocalRelayBroker.frame(type, userId));
+        }
+    }
+
+    private void connectLoop(Consumer<RelayFrame> localDelivery, Consumer<String> userOnline) {
+        long backoffMs = 200;
+        while (running) {
+            RelayWriter writer = null;
+            try (Socket s = new Socket(host, port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()))) {
+                s.setTcpNoDelay(true);
+                onlineUsers.clear(); // the broker resends the current set after HELLO
+                writer = new RelayWriter(s, queueCapacity, "chat-relay-client-out");
+                synchronized (writer) {
+                    writer.offer(LocalRelayBroker.frame(LocalRelayBroker.HELLO, nodeId));
+                    // Publish the writer before replaying, so a concurrent register() is either
+                    // replayed here or queued by itself afterwards
+                    out = writer;
+                    for (String userId : localUsers) {
+                        writer.offer(LocalRelayBroker.frame(LocalRelayBroker.REGISTER, userId));
+                    }
+                }
+                if (!running) {
+                    writer.close(); // stop() ran before out was published and closed nothing
+                    return;
+                }
+                backoffMs = 200;
+                log.info("🛰️ Chat relay node {} connected to broker {}:{}", nodeId, host, port);
+
+                while (running) {
+                    byte type = in.readByte();
+                    switch (type) {
+                        case LocalRelayBroker.DELIVER -> {
+                            RelayFrame frame = new RelayFrame(in.readUTF(), in.readUTF(), LocalRelayBroker.readPayload(in));
+                            try {
+                                localDelivery.accept(frame);
+                            } catch (Exception e) {
+                                log.error("❌ Local delivery of relayed frame failed: {}", e.getMessage());
+                            }
+                        }
+                        case LocalRelayBroker.ONLINE -> {
+                            String userId = in.readUTF();
+                            if (onlineUsers.add(userId)) {
+                                try {
+                                    userOnline.accept(userId);
+                                } catch (Exception e) {
+                                    log.error("❌ Online notification for user {} failed: {}", userId, e.getMessage());
+                                }
+                            }
+                        }
+                        case LocalRelayBroker.OFFLINE -> onlineUsers.remove(in.readUTF());
+                        default -> throw new IOException("Unexpected relay frame type " + type);
+                    }
+                }
+                writer.close();
+            } catch (IOException e) {
+                out = null;
+                // Cut off from the broker, only local users are known to be online
+                onlineUsers.clear();
+                if (writer != null) {
+                    writer.close();
+                }
+                if (!running) {
+                    return;
+                }
+                log.warn("⚠️ Chat relay connection lost ({}), retrying in {} ms", e.getMessage(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.alumniportal.alumni.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal embedded relay broker for {@link EmbeddedBrokerChatRelay}. One node hosts it on a local
+ * TCP port; every node (the host included) connects as a client. The broker owns the cluster-wide
+ * user -> node registry and routes each published frame only to the nodes holding that user.
+ * It also tells every node when a user comes online (first node) or goes offline (last node),
+ * and sends a node the current online users right after its HELLO.
+ *
+ * Each node connection has a reader thread, which also routes the node's PUBLISH frames, and a
+ * {@link RelayWriter} with its own queue and thread: routing only queues, so a slow node delays
+ * nobody but itself, and is disconnected once its queue overflows.
+ *
+ * Wire format: one type byte followed by fields written with DataOutputStream
+ * (UTF strings, int-length-prefixed payload bytes).
+ */
+@Slf4j
+class LocalRelayBroker implements Closeable {
+
+    static final byte HELLO = 1;       // nodeId
+    static final byte REGISTER = 2;    // userId
+    static final byte UNREGISTER = 3;  // userId
+    static final byte PUBLISH = 4;     // userId, destination, payload
+    static final byte DELIVER = 5;     // userId, destination, payload
+    static final byte ONLINE = 6;      // userId
+    static final byte OFFLINE = 7;     // userId
+
+    private final ServerSocket serverSocket;
+    private final int queueCapacity;
+    private final ConcurrentHashMap<String, RelayWriter> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> nodesByUser = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    LocalRelayBroker(int port, int queueCapacity) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.queueCapacity = queueCapacity;
+        Thread acceptor = new Thread(this::acceptLoop, "chat-relay-broker");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("🛰️ Embedded chat relay broker listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread reader = new Thread(() -> serve(socket), "chat-relay-broker-conn");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.error("❌ Relay broker accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        String nodeId = null;
+        RelayWriter connection = new RelayWriter(socket, queueCapacity, "chat-relay-broker-out");
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                byte type = in.readByte();
+                if (type != HELLO && nodeId == null) {
+                    throw new IOException("Relay frame received before HELLO");
+                }
+                switch (type) {
+                    case HELLO -> {
+                        nodeId = in.readUTF();
+                        RelayWriter previous = nodes.put(nodeId, connection);
+                        if (previous != null) {
+                            // Reconnected before the old connection was noticed dead: its
+                            // registrations are stale, the REGISTERs that follow replace them
+                            previous.close();
+                            String stale = nodeId;
+                            nodesByUser.keySet().forEach(userId -> removeRegistration(userId, stale));
+                        }
+                        for (String userId : nodesByUser.keySet()) {
+                            connection.offer(frame(ONLINE, userId));
+                        }
+                    }
+                    case REGISTER -> addRegistration(in.readUTF(), nodeId);
+                    case UNREGISTER -> removeRegistration(in.readUTF(), nodeId);
+                    case PUBLISH -> route(nodeId, in.readUTF(), in.readUTF(), readPayload(in));
+                    default -> throw new IOException("Unknown relay frame type " + type);
+                }
+            }
+        } catch (IOException e) {
+            log.info("🛰️ Relay node {} disconnected: {}", nodeId, e.getMessage());
+        } finally {
+            connection.close();
+            // A node that reconnected under the same id has already replaced this connection
+            // and re-registered its users; only the current connection's exit clears them
+            if (nodeId != null && nodes.remove(nodeId, connection)) {
+                String gone = nodeId;
+                nodesByUser.keySet().forEach(userId -> removeRegistration(userId, gone));
+            }
+        }
+    }
+
+    private void route(String fromNode, String userId, String destination, byte[] payload) {
+        Set<String> targets = nodesByUser.get(userId);
+        if (targets == null) {
+            return;
+        }
+        byte[] encoded = null;
+        for (String target : targets) {
+            if (target.equals(fromNode)) {
+                continue;
+            }
+            RelayWriter connection = nodes.get(target);
+            if (connection != null) {
+                if (encoded == null) {
+                    encoded = frame(DELIVER, userId, destination, payload);
+                }
+                connection.offer(encoded);
+            }
+        }
+    }
+
+    private void addRegistration(String userId, String nodeId) {
+        boolean[] cameOnline = {false};
+        nodesByUser.compute(userId, (k, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+                cameOnline[0] = true;
+            }
+            set.add(nodeId);
+            return set;
+        });
+        if (cameOnline[0]) {
+            broadcast(frame(ONLINE, userId));
+        }
+    }
+
+    private void removeRegistration(String userId, String nodeId) {
+        boolean[] wentOffline = {false};
+        nodesByUser.computeIfPresent(userId, (k, set) -> {
+            if (!set.remove(nodeId) || !set.isEmpty()) {
+                return set;
+            }
+            wentOffline[0] = true;
+            return null;
+        });
+        if (wentOffline[0]) {
+            broadcast(frame(OFFLINE, userId));
+        }
+    }
+
+    private void broadcast(byte[] frame) {
+        nodes.values().forEach(connection -> connection.offer(frame));
+    }
+
+    static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return payload;
+    }
+
+    static byte[] frame(byte type, String userId) {
+        return encode(out -> {
+            out.writeByte(type);
+            out.writeUTF(userId);
+        });
+    }
+
+    static byte[] frame(byte type, String userId, String destination, byte[] payload) {
+        return encode(out -> {
+            out.writeByte(type);
+            out.writeUTF(userId);
+            out.writeUTF(destination);
+            out.writeInt(payload.length);
+            out.write(payload);
+        });
+    }
+
+    private static byte[] encode(FrameWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        nodes.values().forEach(RelayWriter::close);
+    }
+}
@@ -0,0 +1,228 @@
+package com.alumniportal.alumni.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window attempt limits for the credential endpoints, checked before any DB lookup or
+ * password hashing. Every login attempt counts against the client IP. Only failed logins count
+ * against the email, and that counter is kept per (email, IP): someone who knows an address can
+ * use up their own budget for it but cannot lock its owner out from elsewhere. Account lookups
+ * (/verify-user) have a per-IP budget of their own and never touch the login counters.
+ *
+ * Each key is one AtomicLong packing the current window index (32 bits) and the attempt counts of
+ * the current and previous windows (16 bits each). The sliding count is the previous window's
+ * count weighted by how much of it still overlaps the sliding window, plus the current count.
+ * Updates are a single compareAndSet. Keys idle for two windows are swept.
+ */
+@Service
+@Slf4j
+public class LoginThrottleService {
+
+    private static final long COUNT_MASK = 0xFFFF;
+
+    private final long windowMs;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    // Wall-clock millis; tests pass their own
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final AtomicReference<WindowTotals> totals = new AtomicReference<>(new WindowTotals(0, 0, 0, 0, 0));
+
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public LoginThrottleService(@Value("${app.auth.throttle.window-ms:300000}") long windowMs,
+                                @Value("${app.auth.throttle.max-per-email:10}") int maxPerEmail,
+                                @Value("${app.auth.throttle.max-per-ip:50}") int maxPerIp) {
+        this(windowMs, maxPerEmail, maxPerIp, System::currentTimeMillis);
+    }
+
+    LoginThrottleService(long windowMs, int maxPerEmail, int maxPerIp, LongSupplier clock) {
+        this.clock = clock;
+        this.windowMs = Math.max(1000, windowMs);
+        this.maxPerEmail = (int) Math.min(COUNT_MASK, Math.max(1, maxPerEmail));
+        this.maxPerIp = (int) Math.min(COUNT_MASK, Math.max(1, maxPerIp));
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "login-throttle-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Admits a login attempt: refused, without counting, if this client has already failed too
+     * often for the email; otherwise counted against the client IP. An attempt refused for the IP
+     * is not counted either, so a blocked client regains access as earlier attempts slide out.
+     */
+    public Decision tryAcquire(String email, String clientIp) {
+        long now = clock.getAsLong();
+        String failureKey = failureKey(email, clientIp);
+        boolean allowed = (failureKey == null || !isOver(failureKey, maxPerEmail, now))
+                && (clientIp == null || tryCount("ip:" + clientIp, maxPerIp, now));
+        return decide(allowed, now, email, clientIp);
+    }
+
+    /** Admits an account lookup, against the client's lookup budget only. */
+    public Decision tryAcquireLookup(String clientIp) {
+        long now = clock.getAsLong();
+        boolean allowed = clientIp == null || tryCount("lookup:" + clientIp, maxPerIp, now);
+        return decide(allowed, now, null, clientIp);
+    }
+
+    /** Counts a failed login against the (email, IP) pair. */
+    public void onFailure(String email, String clientIp) {
+        String failureKey = failureKey(email, clientIp);
+        if (failureKey != null) {
+            tryCount(failureKey, (int) COUNT_MASK, clock.getAsLong());
+        }
+    }
+
+    /** A successful login clears the pair's failures; the IP keeps its count. */
+    public void onSuccess(String email, String clientIp) {
+        String failureKey = failureKey(email, clientIp);
+        if (failureKey != null) {
+            counters.remove(failureKey);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        WindowTotals current = rolled(totals.get(), clock.getAsLong() / windowMs);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowMs", windowMs);
+        stats.put("trackedKeys", counters.size());
+        stats.put("currentWindow", windowStats(current.allowed(), current.throttled()));
+        stats.put("previousWindow", windowStats(current.previousAllowed(), current.previousThrottled()));
+        return stats;
+    }
+
+    private static Map<String, Object> windowStats(long allowed, long throttled) {
+        Map<String, Object> window = new LinkedHashMap<>();
+        window.put("allowed", allowed);
+        window.put("throttled", throttled);
+        return window;
+    }
+
+    private Decision decide(boolean allowed, long now, String email, String clientIp) {
+        record(now, allowed);
+        if (allowed) {
+            return Decision.ALLOWED;
+        }
+        long retryAfterMs = windowMs - Math.floorMod(now, windowMs);
+        log.warn("⚠️ Throttled credential attempt for {} from {}", email, clientIp);
+        return new Decision(false, Math.max(1, (retryAfterMs + 999) / 1000));
+    }
+
+    private static String failureKey(String email, String clientIp) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return "f:" + email.trim().toLowerCase(Locale.ROOT) + "|" + clientIp;
+    }
+
+    private boolean tryCount(String key, int limit, long now) {
+        long window = now / windowMs;
+        AtomicLong counter = counters.computeIfAbsent(key, k -> new AtomicLong(pack(window, 0, 0)));
+        while (true) {
+            long packed = counter.get();
+            long current = currentCount(packed, window);
+            long previous = previousCount(packed, window);
+            if (previous * previousWeight(now) + current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(packed, pack(window, Math.min(COUNT_MASK, current + 1), previous))) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isOver(String key, int limit, long now) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            return false;
+        }
+        long window = now / windowMs;
+        long packed = counter.get();
+        return previousCount(packed, window) * previousWeight(now) + currentCount(packed, window) >= limit;
+    }
+
+    private double previousWeight(long now) {
+        return 1.0 - (double) (now % windowMs) / windowMs;
+    }
+
+    // Counts as seen from window: a counter last written in an older window has rolled over
+    private static long currentCount(long packed, long window) {
+        return (packed >>> 32) == window ? (packed >>> 16) & COUNT_MASK : 0;
+    }
+
+    private static long previousCount(long packed, long window) {
+        long packedWindow = packed >>> 32;
+        if (packedWindow == window) {
+            return packed & COUNT_MASK;
+        }
+        return packedWindow == window - 1 ? (packed >>> 16) & COUNT_MASK : 0;
+    }
+
+    private void record(long now, boolean allowed) {
+        long window = now / windowMs;
+        totals.updateAndGet(t -> {
+            WindowTotals r = rolled(t, window);
+            return allowed
+                    ? new WindowTotals(window, r.allowed() + 1, r.throttled(), r.previousAllowed(), r.previousThrottled())
+                    : new WindowTotals(window, r.allowed(), r.throttled() + 1, r.previousAllowed(), r.previousThrottled());
+        });
+    }
+
+    private static WindowTotals rolled(WindowTotals t, long window) {
+        if (t.window() == window) {
+            return t;
+        }
+        return t.window() == window - 1
+                ? new WindowTotals(window, 0, 0, t.allowed(), t.throttled())
+                : new WindowTotals(window, 0, 0, 0, 0);
+    }
+
+    private void sweepSafely() {
+        try {
+            long window = clock.getAsLong() / windowMs;
+            counters.values().removeIf(counter -> (counter.get() >>> 32) < window - 1);
+        } catch (Exception e) {
+            log.error("❌ Error sweeping login throttle counters: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long pack(long window, long current, long previous) {
+        return (window << 32) | (current << 16) | previous;
+    }
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    private record WindowTotals(long window, long allowed, long throttled, long previousAllowed, long previousThrottled) {}
+}
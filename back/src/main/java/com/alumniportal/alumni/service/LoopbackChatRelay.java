@@ -0,0 +1,92 @@
+package com.alumniportal.alumni.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process relay. Nodes are application contexts in the same JVM and share a static registry,
+ * so a single instance behaves exactly like the plain simple broker, and several contexts started
+ * in one JVM (e.g. in a test) exchange frames as if they were separate backend instances.
+ */
+@Service
+@ConditionalOnProperty(name = "app.chat.relay.type", havingValue = "loopback", matchIfMissing = true)
+@Slf4j
+public class LoopbackChatRelay implements ChatRelay {
+
+    private static final ConcurrentHashMap<String, Node> NODES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Set<String>> NODES_BY_USER = new ConcurrentHashMap<>();
+
+    private final String nodeId;
+
+    public LoopbackChatRelay(@Value("${app.chat.node-id:}") String nodeId) {
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Override
+    public void start(Consumer<RelayFrame> localDelivery, Consumer<String> userOnline) {
+        NODES.put(nodeId, new Node(localDelivery, userOnline));
+        log.info("🔁 Loopback chat relay started on node {}", nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        NODES.remove(nodeId);
+        NODES_BY_USER.forEach((userId, nodes) -> unregister(userId));
+    }
+
+    @Override
+    public void register(String userId) {
+        boolean[] cameOnline = {false};
+        NODES_BY_USER.compute(userId, (k, nodes) -> {
+            if (nodes == null) {
+                nodes = ConcurrentHashMap.newKeySet();
+                cameOnline[0] = true;
+            }
+            nodes.add(nodeId);
+            return nodes;
+        });
+        if (cameOnline[0]) {
+            NODES.values().forEach(node -> node.userOnline().accept(userId));
+        }
+    }
+
+    @Override
+    public void unregister(String userId) {
+        NODES_BY_USER.computeIfPresent(userId, (k, nodes) -> {
+            nodes.remove(nodeId);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+
+    @Override
+    public boolean isOnline(String userId) {
+        return NODES_BY_USER.containsKey(userId);
+    }
+
+    @Override
+    public void publish(RelayFrame frame) {
+        Set<String> nodes = NODES_BY_USER.get(frame.userId());
+        if (nodes == null) {
+            return;
+        }
+        for (String target : nodes) {
+            if (target.equals(nodeId)) {
+                continue;
+            }
+            Node node = NODES.get(target);
+            if (node != null) {
+                node.delivery().accept(frame);
+            }
+        }
+    }
+
+    private record Node(Consumer<RelayFrame> delivery, Consumer<String> userOnline) {}
+}
@@ -0,0 +1,338 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.ChatMessageDTO;
+import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.repository.ChatMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the ids of messages sent to users who are offline everywhere, instead of pushing frames
+ * nobody receives. Each user's queue is bounded; when it overflows, the oldest ids are dropped and
+ * the batch is flagged as truncated so the client resyncs through /api/chat/sync.
+ * When the user comes online, every node flushes its queue for them as one frame on
+ * /queue/pending-messages. Coming online is detected on the /queue/messages subscription, so the
+ * pending frame may reach the client before it subscribes there: ids therefore stay queued until
+ * the client acknowledges the batch (POST /api/chat/pending/ack), and only then are the messages
+ * recorded as delivered. Unacknowledged ids are sent again on the next flush; ids another node
+ * already saw acknowledged (no longer SENT) are pruned at that point.
+ *
+ * Contract for clients: on every /queue/pending-messages batch, POST the ids it holds to
+ * /api/chat/pending/ack once they are shown. A batch that is not acknowledged within ack-timeout-ms
+ * of being sent is dropped from the queue; those messages stay SENT and are picked up through
+ * /api/chat/sync like any other missed message (as is a truncated batch). Acking late is harmless.
+ *
+ * Memory is bounded three ways: per user (max-pending-per-user), by age (a user's queue is dropped
+ * ttl-ms after its last new id) and in total (past max-users, the users with the oldest last id
+ * go first).
+ */
+@Service
+@Slf4j
+public class OfflineDeliveryQueue {
+
+    public static final String PENDING_DESTINATION = "/queue/pending-messages";
+
+    private final ChatFanoutService chatFanoutService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatDeliveryTracker chatDeliveryTracker;
+    private final int maxPendingPerUser;
+    private final int maxUsers;
+    private final long ttlMs;
+    private final long ackTimeoutMs;
+    private final ConcurrentHashMap<Long, PendingMessages> pendingByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final AtomicLong unacknowledged = new AtomicLong();
+    private final AtomicLong expiredUsers = new AtomicLong();
+    private final AtomicLong evictedUsers = new AtomicLong();
+    private final AtomicBoolean sweepQueued = new AtomicBoolean();
+
+    private ExecutorService flusher;
+    // Ack timeouts and sweeps
+    private ScheduledExecutorService sweeper;
+
+    public OfflineDeliveryQueue(ChatFanoutService chatFanoutService,
+                                ChatMessageRepository chatMessageRepository,
+                                ChatDeliveryTracker chatDeliveryTracker,
+                                @Value("${app.chat.offline.max-pending-per-user:200}") int maxPendingPerUser,
+                                @Value("${app.chat.offline.max-users:100000}") int maxUsers,
+                                @Value("${app.chat.offline.ttl-ms:604800000}") long ttlMs,
+                                @Value("${app.chat.offline.ack-timeout-ms:120000}") long ackTimeoutMs) {
+        this.chatFanoutService = chatFanoutService;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatDeliveryTracker = chatDeliveryTracker;
+        this.maxPendingPerUser = Math.max(1, maxPendingPerUser);
+        this.maxUsers = Math.max(1, maxUsers);
+        this.ttlMs = Math.max(60_000, ttlMs);
+        this.ackTimeoutMs = Math.max(1000, ackTimeoutMs);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "chat-offline-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-offline-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMs = Math.min(ttlMs, TimeUnit.MINUTES.toMillis(5));
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        sweeper.shutdownNow();
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues messageId for an offline receiver. If the receiver came online while this was
+     * happening, the queue is flushed right away so the id is not stranded until the next login.
+     */
+    public void enqueue(Long receiverId, Long messageId) {
+        // Adds and drains both run inside compute, so an id is never added to a drained queue
+        pendingByUser.compute(receiverId, (k, pending) -> {
+            PendingMessages target = pending != null ? pending : new PendingMessages();
+            target.add(messageId, maxPendingPerUser);
+            return target;
+        });
+        queued.incrementAndGet();
+        if (pendingByUser.size() > maxUsers && sweepQueued.compareAndSet(false, true)) {
+            sweeper.execute(this::sweepSafely);
+        }
+        if (chatFanoutService.isOnline(receiverId.toString())) {
+            scheduleFlush(receiverId);
+        }
+    }
+
+    @EventListener
+    public void onUserOnline(ChatUserOnlineEvent event) {
+        try {
+            Long userId = Long.valueOf(event.userId());
+            if (pendingByUser.containsKey(userId)) {
+                scheduleFlush(userId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("⚠️ Ignoring online event for non-numeric user {}", event.userId());
+        }
+    }
+
+    /**
+     * Client acknowledgement of a pending batch: records the given messages as delivered and
+     * removes them from this node's queue. Ids that are not SENT messages addressed to userId are
+     * ignored. Returns the number of messages recorded as delivered.
+     */
+    public int acknowledge(Long userId, Collection<Long> messageIds) {
+        if (messageIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> done = new HashSet<>(messageIds);
+        int recorded = 0;
+        for (ChatMessage message : chatMessageRepository.findSentMessagesByIdIn(messageIds)) {
+            if (!userId.equals(message.getReceiverId())) {
+                done.remove(message.getId());
+            } else if (chatDeliveryTracker.recordDelivered(message.getId(), userId)) {
+                recorded++;
+            } else {
+                // Tracker queue full: keep it pending, it is offered again on the next flush
+                done.remove(message.getId());
+            }
+        }
+        pendingByUser.computeIfPresent(userId, (k, pending) -> pending.removeAll(done) ? null : pending);
+        acknowledged.addAndGet(recorded);
+        return recorded;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usersWithPending", pendingByUser.size());
+        stats.put("queued", queued.get());
+        stats.put("dropped", dropped.get());
+        stats.put("flushed", flushed.get());
+        stats.put("acknowledged", acknowledged.get());
+        stats.put("droppedUnacknowledged", unacknowledged.get());
+        stats.put("expiredUsers", expiredUsers.get());
+        stats.put("evictedUsers", evictedUsers.get());
+        return stats;
+    }
+
+    private void scheduleFlush(Long userId) {
+        flusher.execute(() -> {
+            try {
+                flush(userId);
+            } catch (Exception e) {
+                log.error("❌ Error flushing pending messages for user {}: {}", userId, e.getMessage(), e);
+            }
+        });
+    }
+
+    private void flush(Long userId) {
+        Drained[] taken = new Drained[1];
+        pendingByUser.computeIfPresent(userId, (k, pending) -> {
+            taken[0] = pending.drain();
+            return pending;
+        });
+        Drained drained = taken[0];
+        if (drained == null || drained.messageIds().isEmpty()) {
+            return;
+        }
+
+        List<ChatMessage> messages = chatMessageRepository.findAllById(drained.messageIds()).stream()
+                .filter(m -> m.getStatus() == ChatMessage.MessageStatus.SENT)
+                .sorted(Comparator.comparing(ChatMessage::getId))
+                .collect(Collectors.toList());
+
+        // Delivered or read meanwhile (acknowledged through another node, or deleted): drop them
+        Set<Long> settled = new HashSet<>(drained.messageIds());
+        messages.forEach(m -> settled.remove(m.getId()));
+        if (!settled.isEmpty()) {
+            pendingByUser.computeIfPresent(userId, (k, pending) -> pending.removeAll(settled) ? null : pending);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<ChatMessageDTO> dtos = messages.stream().map(ChatMessageDTO::fromEntity).collect(Collectors.toList());
+        chatFanoutService.sendToUser(userId.toString(), PENDING_DESTINATION,
+                new PendingMessagesBatch(dtos, drained.truncated()));
+        flushed.addAndGet(messages.size());
+
+        // The client has had its chance once the timeout passes: from then on it syncs instead
+        Set<Long> sent = messages.stream().map(ChatMessage::getId).collect(Collectors.toSet());
+        if (sweeper.isShutdown()) {
+            return;
+        }
+        sweeper.schedule(() -> dropUnacknowledged(userId, sent), ackTimeoutMs, TimeUnit.MILLISECONDS);
+
+        log.info("📬 Flushed {} pending messages to user {}{}", messages.size(), userId,
+                drained.truncated() ? " (truncated)" : "");
+    }
+
+    private void dropUnacknowledged(Long userId, Set<Long> sent) {
+        int[] left = new int[1];
+        pendingByUser.computeIfPresent(userId, (k, pending) -> {
+            int before = pending.size();
+            boolean empty = pending.removeAll(sent);
+            left[0] = before - pending.size();
+            return empty ? null : pending;
+        });
+        if (left[0] > 0) {
+            unacknowledged.addAndGet(left[0]);
+            log.info("📭 Dropped {} unacknowledged pending messages for user {}; the client resyncs", left[0], userId);
+        }
+    }
+
+    private void sweepSafely() {
+        sweepQueued.set(false);
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("❌ Error sweeping pending messages: {}", e.getMessage(), e);
+        }
+    }
+
+    void sweep(long now) {
+        int expired = 0;
+        for (Long userId : pendingByUser.keySet()) {
+            boolean[] removed = {false};
+            pendingByUser.computeIfPresent(userId, (k, pending) -> {
+                removed[0] = now - pending.lastAddedAt > ttlMs;
+                return removed[0] ? null : pending;
+            });
+            if (removed[0]) {
+                expired++;
+            }
+        }
+        expiredUsers.addAndGet(expired);
+
+        int evicted = 0;
+        if (pendingByUser.size() > maxUsers) {
+            // lastAddedAt keeps moving under concurrent adds, so sort a copy of it
+            List<long[]> byAge = new ArrayList<>(pendingByUser.size());
+            pendingByUser.forEach((userId, pending) -> byAge.add(new long[]{pending.lastAddedAt, userId}));
+            byAge.sort(Comparator.comparingLong(addedAndId -> addedAndId[0]));
+            long target = (long) maxUsers * 9 / 10;
+            for (long[] addedAndId : byAge) {
+                if (pendingByUser.size() <= target) {
+                    break;
+                }
+                // Skipped if an id was added since the copy: it is no longer among the oldest
+                if (pendingByUser.computeIfPresent(addedAndId[1],
+                        (k, pending) -> pending.lastAddedAt == addedAndId[0] ? null : pending) == null) {
+                    evicted++;
+                }
+            }
+            evictedUsers.addAndGet(evicted);
+        }
+        if (expired > 0 || evicted > 0) {
+            log.info("🧹 Pending messages: dropped {} expired and {} evicted users, {} left",
+                    expired, evicted, pendingByUser.size());
+        }
+    }
+
+    public record PendingMessagesBatch(List<ChatMessageDTO> messages, boolean truncated) {}
+
+    private record Drained(List<Long> messageIds, boolean truncated) {}
+
+    // Only touched inside pendingByUser.compute, which serializes access per user
+    private final class PendingMessages {
+        private final ArrayDeque<Long> ids = new ArrayDeque<>();
+        private boolean truncated;
+        // Read by the sweep outside compute
+        private volatile long lastAddedAt;
+
+        private void add(Long messageId, int capacity) {
+            lastAddedAt = System.currentTimeMillis();
+            if (ids.size() >= capacity) {
+                ids.pollFirst();
+                truncated = true;
+                dropped.incrementAndGet();
+            }
+            ids.addLast(messageId);
+        }
+
+        private int size() {
+            return ids.size();
+        }
+
+        private Drained drain() {
+            return new Drained(new ArrayList<>(ids), truncated);
+        }
+
+        /** Removes the ids; returns true once nothing is left (the truncated flag goes with it). */
+        private boolean removeAll(Set<Long> done) {
+            ids.removeIf(done::contains);
+            return ids.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool so a registration or login burst
+ * can only use that many cores; Tomcat threads wait for the result but stay off the CPU.
+ *
+ * The queue is bounded. When it is full the request is refused immediately with
+ * {@link ServiceBusyException} instead of queueing behind work that would time out anyway, and a
+ * caller that waits longer than timeout-ms gives up the same way. An abandoned task is taken off
+ * the queue; one that reaches a thread after its caller's deadline is skipped without hashing.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.auth.hashing.threads:0}") int threads,
+                                  @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.auth.hashing.timeout-ms:10000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timeoutMs = Math.max(100, timeoutMs);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks rawPassword against storedHash. If it matches and the hash was made with a lower cost
+     * than the one now configured, the new hash is computed in the same task and returned so the
+     * caller can store it.
+     */
+    public Verification verify(String rawPassword, String storedHash) {
+        return run(() -> {
+            if (!passwordEncoder.matches(rawPassword, storedHash)) {
+                return new Verification(false, null);
+            }
+            if (!passwordEncoder.upgradeEncoding(storedHash)) {
+                return new Verification(true, null);
+            }
+            rehashed.incrementAndGet();
+            return new Verification(true, passwordEncoder.encode(rawPassword));
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        long done = completed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", done);
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("rehashed", rehashed.get());
+        stats.put("avgWaitMs", done == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / done);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private <T> T run(Callable<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                if (waited >= TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+                    // The caller has given up (or is about to): don't spend a core on the result
+                    throw new CancellationException("Password hashing request expired in the queue");
+                }
+                totalWaitNanos.addAndGet(waited);
+                maxWaitNanos.accumulateAndGet(waited, Math::max);
+                try {
+                    return work.call();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("⚠️ Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new ServiceBusyException("Too many sign-in requests right now. Please try again in a moment.");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            timedOut.incrementAndGet();
+            throw new ServiceBusyException("Sign-in is taking longer than usual. Please try again in a moment.");
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Frees the queue slot of a task that has not started; interrupts one that has
+    private void abandon(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof Runnable queued) {
+            executor.remove(queued);
+        }
+    }
+
+    /** upgradedHash is non-null only when the password matched and its hash should be replaced. */
+    public record Verification(boolean matches, String upgradedHash) {}
+}
@@ -2,19 +2,18 @@ package com.alumniportal.alumni.service;
 
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 public class PasswordResetService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     public PasswordResetService(UserRepository userRepository,
-                                PasswordEncoder passwordEncoder) {
+                                PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     // Direct password reset without email/token
@@ -28,7 +27,7 @@ public class PasswordResetService {
         }
 
         // Update password
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
 
         System.out.println("✅ Password reset successfully for user: " + user.getEmail());
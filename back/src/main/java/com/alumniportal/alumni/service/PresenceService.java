@@ -0,0 +1,289 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.repository.ConversationRepository;
+import com.alumniportal.alumni.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online / last-seen presence for chat users.
+ *
+ * STOMP CONNECT / DISCONNECT events and inbound frames (including heartbeats) update a concurrent
+ * registry keyed by user id; the hot path never takes a lock or touches the DB. Sessions that
+ * stop sending heartbeats are closed by the broker and arrive here as a DISCONNECT.
+ *
+ * A scheduler thread coalesces the users whose presence changed since the last tick and sends
+ * each watcher (a user who has a conversation with them) one batched frame on /queue/presence.
+ * Last-seen timestamps are collected the same way and persisted with one JDBC batch per interval.
+ */
+@Service
+@Slf4j
+public class PresenceService {
+
+    public static final String PRESENCE_DESTINATION = "/queue/presence";
+
+    private static final String LAST_SEEN_SQL = "UPDATE users SET last_seen = ? WHERE id = ?";
+
+    private final ChatFanoutService chatFanoutService;
+    private final ConversationRepository conversationRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long broadcastIntervalMs;
+    private final long lastSeenFlushMs;
+    private final long lastSeenResolutionMs;
+
+    private final ConcurrentHashMap<Long, Presence> presenceByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> userBySession = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Boolean> lastBroadcast = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> pendingLastSeen = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public PresenceService(ChatFanoutService chatFanoutService,
+                           ConversationRepository conversationRepository,
+                           UserRepository userRepository,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${app.chat.presence.broadcast-interval-ms:1000}") long broadcastIntervalMs,
+                           @Value("${app.chat.presence.last-seen-flush-ms:30000}") long lastSeenFlushMs,
+                           @Value("${app.chat.presence.last-seen-resolution-ms:60000}") long lastSeenResolutionMs) {
+        this.chatFanoutService = chatFanoutService;
+        this.conversationRepository = conversationRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.broadcastIntervalMs = Math.max(100, broadcastIntervalMs);
+        this.lastSeenFlushMs = Math.max(1000, lastSeenFlushMs);
+        this.lastSeenResolutionMs = Math.max(0, lastSeenResolutionMs);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-presence");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::broadcastSafely, broadcastIntervalMs, broadcastIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushLastSeenSafely, lastSeenFlushMs, lastSeenFlushMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flushLastSeenSafely();
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null || userBySession.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Presence presence = presenceByUser.compute(userId, (k, existing) -> {
+            Presence p = existing != null ? existing : new Presence();
+            p.sessions++;
+            return p;
+        });
+        presence.lastSeenRecorded = now;
+        pendingLastSeen.put(userId, now);
+        changed.add(userId);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Long userId = userBySession.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        presenceByUser.computeIfPresent(userId, (k, p) -> --p.sessions > 0 ? p : null);
+        pendingLastSeen.put(userId, System.currentTimeMillis());
+        changed.add(userId);
+    }
+
+    /**
+     * A session becomes a receiving session only after SUBSCRIBE; re-check the user then.
+     * Only the node holding the session reacts, so watchers get one update.
+     */
+    @EventListener
+    public void onUserOnline(ChatUserOnlineEvent event) {
+        Long userId = userId(event.userId());
+        if (userId != null && presenceByUser.containsKey(userId)) {
+            changed.add(userId);
+        }
+    }
+
+    /**
+     * Records activity for a connected user (any inbound frame or heartbeat). Lock-free; last-seen
+     * is queued for persistence at most once per resolution interval.
+     */
+    public void touch(String principalName) {
+        Long userId = userId(principalName);
+        Presence presence = userId == null ? null : presenceByUser.get(userId);
+        if (presence == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - presence.lastSeenRecorded >= lastSeenResolutionMs) {
+            presence.lastSeenRecorded = now;
+            pendingLastSeen.put(userId, now);
+        }
+    }
+
+    /** Current presence for the given users: online anywhere in the cluster, plus last seen. */
+    public List<PresenceUpdate> getPresence(Collection<Long> userIds) {
+        Map<Long, LocalDateTime> lastSeen = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (Object[] row : userRepository.findLastSeenByIdIn(userIds)) {
+                lastSeen.put(((Number) row[0]).longValue(), (LocalDateTime) row[1]);
+            }
+        }
+        List<PresenceUpdate> result = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Long pending = pendingLastSeen.get(userId);
+            result.add(new PresenceUpdate(userId, chatFanoutService.isOnline(userId.toString()),
+                    pending != null ? toLocalDateTime(pending) : lastSeen.get(userId)));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectedUsers", presenceByUser.size());
+        stats.put("connectedSessions", userBySession.size());
+        stats.put("pendingChanges", changed.size());
+        stats.put("pendingLastSeenWrites", pendingLastSeen.size());
+        return stats;
+    }
+
+    private void broadcastSafely() {
+        try {
+            broadcastChanges();
+        } catch (Exception e) {
+            log.error("❌ Error broadcasting presence: {}", e.getMessage(), e);
+        }
+    }
+
+    private void broadcastChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<PresenceUpdate> updates = new ArrayList<>();
+        for (Long userId : List.copyOf(changed)) {
+            changed.remove(userId);
+            // Online state is cluster-wide, so a disconnect here while another node still holds
+            // the user produces no update
+            boolean online = chatFanoutService.isOnline(userId.toString());
+            Boolean previous = online ? lastBroadcast.put(userId, true) : lastBroadcast.remove(userId);
+            if (previous == null ? !online : previous == online) {
+                continue;
+            }
+            Long lastSeen = pendingLastSeen.get(userId);
+            updates.add(new PresenceUpdate(userId, online, lastSeen != null ? toLocalDateTime(lastSeen) : null));
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        Map<Long, PresenceUpdate> byUser = new HashMap<>();
+        updates.forEach(update -> byUser.put(update.userId(), update));
+
+        Map<Long, List<PresenceUpdate>> byWatcher = new HashMap<>();
+        for (Object[] row : conversationRepository.findParticipantsForUsers(byUser.keySet())) {
+            long user1 = ((Number) row[0]).longValue();
+            long user2 = ((Number) row[1]).longValue();
+            addForWatcher(byWatcher, user2, byUser.get(user1));
+            addForWatcher(byWatcher, user1, byUser.get(user2));
+        }
+
+        byWatcher.forEach((watcherId, batch) -> {
+            String watcher = watcherId.toString();
+            if (chatFanoutService.isOnline(watcher)) {
+                chatFanoutService.sendToUser(watcher, PRESENCE_DESTINATION, new PresenceBatch(batch));
+            }
+        });
+        log.debug("👥 Broadcast {} presence changes to {} watchers", updates.size(), byWatcher.size());
+    }
+
+    private void addForWatcher(Map<Long, List<PresenceUpdate>> byWatcher, long watcherId, PresenceUpdate update) {
+        if (update != null && update.userId() != watcherId) {
+            byWatcher.computeIfAbsent(watcherId, k -> new ArrayList<>()).add(update);
+        }
+    }
+
+    private void flushLastSeenSafely() {
+        try {
+            flushLastSeen();
+        } catch (Exception e) {
+            log.error("❌ Error persisting last-seen: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flushLastSeen() {
+        if (pendingLastSeen.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : List.copyOf(pendingLastSeen.keySet())) {
+            Long millis = pendingLastSeen.remove(userId);
+            if (millis != null) {
+                batch.add(new Object[]{Timestamp.from(Instant.ofEpochMilli(millis)), userId});
+            }
+        }
+        jdbcTemplate.batchUpdate(LAST_SEEN_SQL, batch);
+        log.debug("👥 Persisted last-seen for {} users", batch.size());
+    }
+
+    private static Long userId(Principal principal) {
+        return principal == null ? null : userId(principal.getName());
+    }
+
+    private static Long userId(String principalName) {
+        try {
+            return principalName == null ? null : Long.valueOf(principalName);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    public record PresenceUpdate(Long userId, boolean online, LocalDateTime lastSeen) {}
+
+    public record PresenceBatch(List<PresenceUpdate> updates) {}
+
+    // sessions is only changed inside presenceByUser.compute; lastSeenRecorded is a plain volatile write
+    private static final class Presence {
+        private int sessions;
+        private volatile long lastSeenRecorded;
+    }
+}
@@ -1,48 +1,83 @@
 package com.alumniportal.alumni.service;
 
 import com.alumniportal.alumni.dto.ProfileDTO;
+import com.alumniportal.alumni.dto.ProfileSnapshot;
 import com.alumniportal.alumni.entity.Profile;
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.repository.ProfileRepository;
 import com.alumniportal.alumni.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ProfileService {
 
     private final ProfileRepository profileRepository;
     private final UserRepository userRepository;
-
-    public ProfileService(ProfileRepository profileRepository, UserRepository userRepository) {
+    private final ProfileSnapshotCache profileSnapshotCache;
+    private final AlumniSearchService alumniSearchService;
+    private final AlumniSuggestionService alumniSuggestionService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProfileService(ProfileRepository profileRepository, UserRepository userRepository,
+                          ProfileSnapshotCache profileSnapshotCache,
+                          AlumniSearchService alumniSearchService,
+                          AlumniSuggestionService alumniSuggestionService,
+                          PlatformTransactionManager transactionManager) {
         this.profileRepository = profileRepository;
         this.userRepository = userRepository;
+        this.profileSnapshotCache = profileSnapshotCache;
+        this.alumniSearchService = alumniSearchService;
+        this.alumniSuggestionService = alumniSuggestionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    // ✅ Get Profile by Email
+    // ✅ Get Profile by Email (served from the snapshot cache when possible)
     public ProfileDTO getProfileByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+        ProfileDTO dto = profileSnapshotCache.getByEmail(email, () -> userRepository.findWithProfileByEmail(email).map(this::snapshotOf))
+                .orElseThrow(() -> new RuntimeException("User not found: " + email))
+                .toDTO();
+        System.out.println("📤 Returning profile with photo: " + (dto.getProfilePhoto() != null ? dto.getProfilePhoto() : "NULL"));
+        return dto;
+    }
+
+    // Profile of any user by id, for read-only views of other users' profiles
+    public Optional<ProfileSnapshot> getProfileSnapshot(Long userId) {
+        return profileSnapshotCache.getByUserId(userId, () -> userRepository.findWithProfileById(userId).map(this::snapshotOf));
+    }
 
+    // Several users' profiles, in the given order; cache misses are loaded with one query
+    public Map<Long, ProfileSnapshot> getProfileSnapshots(Collection<Long> userIds) {
+        return profileSnapshotCache.getAllByUserId(userIds, missing -> userRepository.findWithProfileByIdIn(missing)
+                .stream()
+                .map(this::snapshotOf)
+                .collect(Collectors.toList()));
+    }
+
+    private ProfileSnapshot snapshotOf(User user) {
         Profile profile = user.getProfile();
         if (profile == null) {
             profile = createDefaultProfile(user);
         }
-
-        ProfileDTO dto = convertToDTO(profile);
-        System.out.println("📤 Returning profile with photo: " + (dto.getProfilePhoto() != null ? dto.getProfilePhoto() : "NULL"));
-        return dto;
+        return ProfileSnapshot.of(user, profile);
     }
 
     // ✅ FIXED: Update Profile by Email - Now properly handles photo deletion
     public ProfileDTO updateProfileByEmail(String email, ProfileDTO updatedProfileDTO) {
-        User user = userRepository.findByEmail(email)
+        long cacheUpdate = profileSnapshotCache.beginUpdate();
+        User user = userRepository.findWithProfileByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
         Profile profile = user.getProfile();
@@ -129,6 +164,8 @@ public class ProfileService {
         }
 
         Profile updatedProfile = profileRepository.save(profile);
+        profileSnapshotCache.completeUpdate(cacheUpdate, ProfileSnapshot.of(user, updatedProfile));
+        onProfileSaved(user, updatedProfile);
 
         System.out.println("✅ Profile saved to database successfully");
         System.out.println("📷 Profile photo after save: " + (updatedProfile.getProfilePhoto() != null ? updatedProfile.getProfilePhoto() : "NULL/EMPTY"));
@@ -158,7 +195,8 @@ public class ProfileService {
 
     // ✅ Update Profile Photo Only
     public ProfileDTO updateProfilePhotoByEmail(String email, String profilePhotoUrl) {
-        User user = userRepository.findByEmail(email)
+        long cacheUpdate = profileSnapshotCache.beginUpdate();
+        User user = userRepository.findWithProfileByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
         Profile profile = user.getProfile();
@@ -182,6 +220,8 @@ public class ProfileService {
         }
 
         Profile savedProfile = profileRepository.save(profile);
+        profileSnapshotCache.completeUpdate(cacheUpdate, ProfileSnapshot.of(user, savedProfile));
+        onProfileSaved(user, savedProfile);
         return convertToDTO(savedProfile);
     }
 
@@ -223,10 +263,15 @@ public class ProfileService {
         }
     }
 
+    // Keeps the in-memory search index and suggestion model in step with a saved profile
+    private void onProfileSaved(User user, Profile profile) {
+        alumniSearchService.onProfileSaved(user, profile);
+        alumniSuggestionService.onProfileSaved(user, profile);
+    }
+
     // ✅ Create Default Profile
     private Profile createDefaultProfile(User user) {
         Profile profile = new Profile();
-        profile.setUser(user);
         profile.setEmail(user.getEmail());
         profile.setFirstName("First Name");
         profile.setLastName("Last Name");
@@ -242,9 +287,13 @@ public class ProfileService {
         profile.setCurrentCompany("");
         profile.setPosition("");
 
-        Profile savedProfile = profileRepository.save(profile);
+        // Shared key: the profile takes the user's id, which needs the user managed in the same transaction
+        Profile savedProfile = transactionTemplate.execute(status -> {
+            profile.setUser(userRepository.getReferenceById(user.getId()));
+            return profileRepository.save(profile);
+        });
         user.setProfile(savedProfile);
-        userRepository.save(user);
+        onProfileSaved(user, savedProfile);
         return savedProfile;
     }
 
@@ -272,8 +321,9 @@ public class ProfileService {
 
     // ✅ Optional: Profile photo upload with MultipartFile
     public ProfileDTO updateProfilePhoto(String email, MultipartFile file) {
+        long cacheUpdate = profileSnapshotCache.beginUpdate();
         try {
-            User user = userRepository.findByEmail(email)
+            User user = userRepository.findWithProfileByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
             Profile profile = user.getProfile();
@@ -298,6 +348,8 @@ public class ProfileService {
             profile.setProfilePhoto(filePath);
 
             Profile updated = profileRepository.save(profile);
+            profileSnapshotCache.completeUpdate(cacheUpdate, ProfileSnapshot.of(user, updated));
+            onProfileSaved(user, updated);
             return convertToDTO(updated);
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + file.getOriginalFilename(), ex);
@@ -0,0 +1,262 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.ProfileSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read cache of {@link ProfileSnapshot}s, found by user id or login email. Hits are lock-free and
+ * cost no query.
+ *
+ * The cache is bounded by an estimate of the bytes the snapshots hold rather than by entry count,
+ * because a profile photo can be stored inline as base64; snapshots over max-entry-bytes are not
+ * cached at all. Past max-bytes the least recently used entries go until it is under 90% again.
+ *
+ * Profile writes go through {@link #beginUpdate()} / {@link #completeUpdate}: the saved snapshot
+ * replaces the cached one, unless another write or invalidation happened in between, in which
+ * case the entry is just dropped. A load that overlaps any write is returned but not cached, so a
+ * slow read can never put back a profile that was changed meanwhile. ttl-ms bounds how long a
+ * change made outside ProfileService can stay invisible.
+ */
+@Service
+@Slf4j
+public class ProfileSnapshotCache {
+
+    // Rough per-object overheads of the record and its String fields on a 64-bit JVM
+    private static final int SNAPSHOT_OVERHEAD = 120;
+    private static final int STRING_OVERHEAD = 40;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long ttlMs;
+
+    private final ConcurrentHashMap<Long, Entry> byUserId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> userIdByEmail = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    // Bumped by every write and invalidation; guarded by writeLock
+    private long writeEpoch;
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final AtomicLong accessClock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong oversized = new AtomicLong();
+
+    public ProfileSnapshotCache(@Value("${app.profile.cache.max-bytes:16777216}") long maxBytes,
+                                @Value("${app.profile.cache.max-entry-bytes:262144}") long maxEntryBytes,
+                                @Value("${app.profile.cache.ttl-ms:600000}") long ttlMs) {
+        this.maxBytes = Math.max(1024, maxBytes);
+        this.maxEntryBytes = Math.min(this.maxBytes, Math.max(1024, maxEntryBytes));
+        this.ttlMs = Math.max(0, ttlMs);
+    }
+
+    /** The cached snapshot for this login email, else the loader's result (cached if present). */
+    public Optional<ProfileSnapshot> getByEmail(String email, Supplier<Optional<ProfileSnapshot>> loader) {
+        Long userId = email == null ? null : userIdByEmail.get(key(email));
+        return get(userId == null ? null : byUserId.get(userId), loader);
+    }
+
+    /** The cached snapshot for this user id, else the loader's result (cached if present). */
+    public Optional<ProfileSnapshot> getByUserId(Long userId, Supplier<Optional<ProfileSnapshot>> loader) {
+        return get(userId == null ? null : byUserId.get(userId), loader);
+    }
+
+    /**
+     * Cached snapshots for these user ids, in the given order; the misses are fetched with one
+     * loader call (and cached, unless a write overlapped it). Ids without a profile are left out.
+     */
+    public Map<Long, ProfileSnapshot> getAllByUserId(Collection<Long> userIds,
+                                                     Function<Collection<Long>, Collection<ProfileSnapshot>> loader) {
+        long now = System.currentTimeMillis();
+        Map<Long, ProfileSnapshot> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            Entry entry = userId == null ? null : byUserId.get(userId);
+            if (entry != null && now - entry.loadedAt < ttlMs) {
+                entry.lastUsed = accessClock.incrementAndGet();
+                hits.incrementAndGet();
+                found.put(userId, entry.snapshot);
+            } else if (userId != null) {
+                misses.incrementAndGet();
+                found.put(userId, null);
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long epochAtLoad = beginUpdate();
+            Collection<ProfileSnapshot> loaded = loader.apply(missing);
+            synchronized (writeLock) {
+                if (writeEpoch == epochAtLoad) {
+                    loaded.forEach(this::store);
+                }
+            }
+            loaded.forEach(snapshot -> found.replace(snapshot.userId(), snapshot));
+        }
+        found.values().removeIf(Objects::isNull);
+        return found;
+    }
+
+    /** Call before writing a profile; pass the result to {@link #completeUpdate} once it is saved. */
+    public long beginUpdate() {
+        synchronized (writeLock) {
+            return writeEpoch;
+        }
+    }
+
+    /** Stores the saved profile, or drops the entry if another write raced with this one. */
+    public void completeUpdate(long updateToken, ProfileSnapshot saved) {
+        synchronized (writeLock) {
+            if (writeEpoch == updateToken) {
+                writeEpoch++;
+                store(saved);
+            } else {
+                writeEpoch++;
+                remove(saved.userId());
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (writeLock) {
+            writeEpoch++;
+            remove(userId);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", byUserId.size());
+        stats.put("bytes", cachedBytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("oversizedSkipped", oversized.get());
+        return stats;
+    }
+
+    private Optional<ProfileSnapshot> get(Entry entry, Supplier<Optional<ProfileSnapshot>> loader) {
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.loadedAt < ttlMs) {
+            entry.lastUsed = accessClock.incrementAndGet();
+            hits.incrementAndGet();
+            return Optional.of(entry.snapshot);
+        }
+        misses.incrementAndGet();
+
+        long epochAtLoad = beginUpdate();
+        Optional<ProfileSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> {
+            synchronized (writeLock) {
+                if (writeEpoch == epochAtLoad) {
+                    store(snapshot);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    // Callers hold writeLock
+    private void store(ProfileSnapshot snapshot) {
+        long weight = weigh(snapshot);
+        if (weight > maxEntryBytes) {
+            remove(snapshot.userId());
+            oversized.incrementAndGet();
+            return;
+        }
+        Entry entry = new Entry(snapshot, weight, System.currentTimeMillis(), accessClock.incrementAndGet());
+        Entry previous = byUserId.put(snapshot.userId(), entry);
+        if (previous != null) {
+            cachedBytes.addAndGet(-previous.weight);
+            if (!key(previous.snapshot.accountEmail()).equals(key(snapshot.accountEmail()))) {
+                userIdByEmail.remove(key(previous.snapshot.accountEmail()), snapshot.userId());
+            }
+        }
+        userIdByEmail.put(key(snapshot.accountEmail()), snapshot.userId());
+        if (cachedBytes.addAndGet(weight) > maxBytes) {
+            shrink();
+        }
+    }
+
+    // Callers hold writeLock
+    private void remove(Long userId) {
+        Entry removed = userId == null ? null : byUserId.remove(userId);
+        if (removed != null) {
+            cachedBytes.addAndGet(-removed.weight);
+            userIdByEmail.remove(key(removed.snapshot.accountEmail()), userId);
+        }
+    }
+
+    // Callers hold writeLock
+    private void shrink() {
+        // lastUsed keeps moving under concurrent hits, so sort a copy of it
+        List<long[]> byAge = new ArrayList<>(byUserId.size());
+        byUserId.forEach((userId, entry) -> byAge.add(new long[]{entry.lastUsed, userId}));
+        byAge.sort(Comparator.comparingLong(usedAndId -> usedAndId[0]));
+        long target = maxBytes * 9 / 10;
+        int evicted = 0;
+        for (long[] usedAndId : byAge) {
+            if (cachedBytes.get() <= target) {
+                break;
+            }
+            remove(usedAndId[1]);
+            evicted++;
+        }
+        evictions.addAndGet(evicted);
+        log.debug("🧹 Evicted {} profile snapshots, {} bytes cached", evicted, cachedBytes.get());
+    }
+
+    private static long weigh(ProfileSnapshot s) {
+        return SNAPSHOT_OVERHEAD + weigh(s.accountEmail()) + weigh(s.firstName()) + weigh(s.lastName())
+                + weigh(s.email()) + weigh(s.phone()) + weigh(s.batch()) + weigh(s.about())
+                + weigh(s.profilePhoto()) + weigh(s.graduationYear()) + weigh(s.degree()) + weigh(s.branch())
+                + weigh(s.currentCompany()) + weigh(s.position());
+    }
+
+    // Two bytes per char: exact for non-Latin-1 text, an overestimate otherwise
+    private static long weigh(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final ProfileSnapshot snapshot;
+        final long weight;
+        final long loadedAt;
+        volatile long lastUsed;
+
+        Entry(ProfileSnapshot snapshot, long weight, long loadedAt, long lastUsed) {
+            this.snapshot = snapshot;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.alumniportal.alumni.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Google reCAPTCHA siteverify. One shared HttpClient keeps connections to the provider alive and
+ * reuses them across requests; calls are asynchronous and bounded by the configured timeouts.
+ * The secret goes in the form body rather than the URL so it does not end up in access logs.
+ */
+@Service
+@ConditionalOnProperty(name = "app.captcha.provider", havingValue = "recaptcha", matchIfMissing = true)
+@Slf4j
+public class RecaptchaVerifier implements CaptchaVerifier {
+
+    private final ObjectMapper objectMapper;
+    private final URI verifyUri;
+    private final String secret;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    public RecaptchaVerifier(ObjectMapper objectMapper,
+                             @Value("${app.captcha.recaptcha.verify-url:https://www.google.com/recaptcha/api/siteverify}") String verifyUrl,
+                             @Value("${app.captcha.recaptcha.secret}") String secret,
+                             @Value("${app.captcha.connect-timeout-ms:1000}") long connectTimeoutMs,
+                             @Value("${app.captcha.request-timeout-ms:2000}") long requestTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.verifyUri = URI.create(verifyUrl);
+        this.secret = secret;
+        this.requestTimeout = Duration.ofMillis(Math.max(100, requestTimeoutMs));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.max(100, connectTimeoutMs)))
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verify(String token) {
+        String form = "secret=" + URLEncoder.encode(secret, StandardCharsets.UTF_8)
+                + "&response=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(verifyUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("reCAPTCHA returned HTTP " + response.statusCode());
+                    }
+                    try {
+                        JsonNode body = objectMapper.readTree(response.body());
+                        boolean success = body.path("success").asBoolean(false);
+                        if (!success) {
+                            log.debug("reCAPTCHA rejected token: {}", body.path("error-codes"));
+                        }
+                        return success;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package com.alumniportal.alumni.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Outbound side of one relay socket, shared by {@link LocalRelayBroker} and
+ * {@link EmbeddedBrokerChatRelay}. Callers only queue encoded frames; a dedicated thread writes
+ * them, flushing once the queue is drained, so a slow or hung peer never blocks the caller.
+ *
+ * A peer that lets the queue fill up is disconnected: its socket is closed and everything still
+ * queued is dropped. Both ends rebuild their state on reconnect (the node replays its
+ * registrations, the broker resends the online users), which a dropped presence frame would not.
+ */
+@Slf4j
+final class RelayWriter {
+
+    private final Socket socket;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    RelayWriter(Socket socket, int capacity, String threadName) {
+        this.socket = socket;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.thread = new Thread(this::writeLoop, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Queues a frame. Returns false if the connection is closed, or was just closed for overflowing. */
+    boolean offer(byte[] frame) {
+        if (closed) {
+            return false;
+        }
+        if (queue.offer(frame)) {
+            return true;
+        }
+        log.warn("⚠️ Relay peer {} is not keeping up ({} frames queued), disconnecting",
+                socket.getRemoteSocketAddress(), queue.size());
+        close();
+        return false;
+    }
+
+    /** Closes the socket, which also ends the reader on the other side of this connection. */
+    void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Relay socket close failed: {}", e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (!closed) {
+                out.write(queue.take());
+                byte[] next;
+                while ((next = queue.poll()) != null) {
+                    out.write(next);
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("⚠️ Relay write to {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        } finally {
+            close();
+            queue.clear();
+        }
+    }
+}
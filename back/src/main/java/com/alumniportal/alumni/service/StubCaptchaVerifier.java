@@ -0,0 +1,36 @@
+package com.alumniportal.alumni.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline verifier for local runs and load tests: any non-blank token passes except "invalid",
+ * after an optional simulated provider latency.
+ */
+@Service
+@ConditionalOnProperty(name = "app.captcha.provider", havingValue = "stub")
+@Slf4j
+public class StubCaptchaVerifier implements CaptchaVerifier {
+
+    private final long latencyMs;
+
+    public StubCaptchaVerifier(@Value("${app.captcha.stub.latency-ms:0}") long latencyMs) {
+        this.latencyMs = Math.max(0, latencyMs);
+        log.warn("⚠️ CAPTCHA stub verifier active: tokens are not checked with any provider");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verify(String token) {
+        boolean valid = token != null && !token.isBlank() && !"invalid".equals(token);
+        if (latencyMs == 0) {
+            return CompletableFuture.completedFuture(valid);
+        }
+        return CompletableFuture.supplyAsync(() -> valid,
+                CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -6,25 +6,20 @@ import com.alumniportal.alumni.entity.Profile;
 import com.alumniportal.alumni.entity.User;
 import com.alumniportal.alumni.repository.ConnectionRepository;
 import com.alumniportal.alumni.repository.ProfileRepository;
-import com.alumniportal.alumni.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class StudentService {
 
     private final ProfileRepository profileRepository;
-    private final UserRepository userRepository;
     private final ConnectionRepository connectionRepository;
 
     public StudentService(ProfileRepository profileRepository,
-                          UserRepository userRepository,
                           ConnectionRepository connectionRepository) {
         this.profileRepository = profileRepository;
-        this.userRepository = userRepository;
         this.connectionRepository = connectionRepository;
     }
 
@@ -36,15 +31,8 @@ public class StudentService {
 
     // Fetch all alumni profiles
     public List<Profile> getAllAlumni() {
-        List<User> alumniUsers = userRepository.findAll()
-                .stream()
-                .filter(u -> u.getRole().getName().equalsIgnoreCase("ALUMNI"))
-                .collect(Collectors.toList());
-
-        return alumniUsers.stream()
-                .map(u -> profileRepository.findByUser(u)
-                        .orElseThrow(() -> new RuntimeException("Profile not found for alumni: " + u.getId())))
-                .collect(Collectors.toList());
+        // One query with the users joined in, instead of loading every user and a profile per alumnus
+        return profileRepository.findAllByUserRoleName("ALUMNI");
     }
 
     // Send connection request from student to alumni
@@ -0,0 +1,158 @@
+package com.alumniportal.alumni.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory typing indicators; nothing here is persisted.
+ *
+ * Each (sender, receiver) pair keeps the state the client last asked for and the state last sent
+ * to the receiver. A change is forwarded at most once per min-interval; changes arriving faster
+ * are coalesced and the final state is sent by the next tick, so a burst of start/stop events
+ * costs at most one frame per interval. While typing continues the indicator is refreshed every
+ * refresh-ms, and it is cleared automatically when the sender goes quiet for expiry-ms.
+ */
+@Service
+@Slf4j
+public class TypingIndicatorService {
+
+    public static final String TYPING_DESTINATION = "/queue/typing";
+
+    private final ChatFanoutService chatFanoutService;
+    private final long minIntervalMs;
+    private final long refreshMs;
+    private final long expiryMs;
+    private final ConcurrentHashMap<TypingKey, TypingState> states = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public TypingIndicatorService(ChatFanoutService chatFanoutService,
+                                  @Value("${app.chat.typing.min-interval-ms:1000}") long minIntervalMs,
+                                  @Value("${app.chat.typing.refresh-ms:3000}") long refreshMs,
+                                  @Value("${app.chat.typing.expiry-ms:6000}") long expiryMs) {
+        this.chatFanoutService = chatFanoutService;
+        this.minIntervalMs = Math.max(50, minIntervalMs);
+        this.refreshMs = Math.max(this.minIntervalMs, refreshMs);
+        this.expiryMs = Math.max(this.refreshMs, expiryMs);
+    }
+
+    @PostConstruct
+    void start() {
+        long tickMs = Math.max(50, minIntervalMs / 2);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-typing");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::tickSafely, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void onTyping(long senderId, long receiverId, boolean typing) {
+        if (senderId == receiverId) {
+            return;
+        }
+        received.incrementAndGet();
+        long now = System.currentTimeMillis();
+        TypingKey key = new TypingKey(senderId, receiverId);
+        while (true) {
+            TypingState state = states.computeIfAbsent(key, k -> new TypingState());
+            synchronized (state) {
+                if (state.removed) {
+                    continue; // evicted by the tick in between; use the fresh entry
+                }
+                state.desired = typing;
+                state.lastEventAt = now;
+                if (state.desired != state.sent && now - state.sentAt >= minIntervalMs) {
+                    send(senderId, receiverId, state, now);
+                }
+                return;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activePairs", states.size());
+        stats.put("received", received.get());
+        stats.put("forwarded", forwarded.get());
+        return stats;
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.error("❌ Error flushing typing indicators: {}", e.getMessage(), e);
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        states.forEach((key, state) -> {
+            synchronized (state) {
+                if (state.desired && now - state.lastEventAt >= expiryMs) {
+                    state.desired = false; // sender went quiet without a stop event
+                }
+                if (now - state.sentAt < minIntervalMs) {
+                    return;
+                }
+                boolean refresh = state.desired && state.sent && now - state.sentAt >= refreshMs;
+                if (state.desired != state.sent || refresh) {
+                    send(key.senderId(), key.receiverId(), state, now);
+                } else if (!state.desired && !state.sent) {
+                    state.removed = true;
+                    states.remove(key, state);
+                }
+            }
+        });
+    }
+
+    private void send(long senderId, long receiverId, TypingState state, long now) {
+        state.sent = state.desired;
+        state.sentAt = now;
+        String receiver = Long.toString(receiverId);
+        if (!chatFanoutService.isOnline(receiver)) {
+            return;
+        }
+        chatFanoutService.sendToUser(receiver, TYPING_DESTINATION,
+                new TypingUpdate(conversationId(senderId, receiverId), senderId, state.sent, LocalDateTime.now()));
+        forwarded.incrementAndGet();
+    }
+
+    private static String conversationId(long user1, long user2) {
+        return Math.min(user1, user2) + "_" + Math.max(user1, user2);
+    }
+
+    public record TypingUpdate(String conversationId, long senderId, boolean typing, LocalDateTime timestamp) {}
+
+    private record TypingKey(long senderId, long receiverId) {}
+
+    // Guarded by its own monitor; contention is limited to one sender/receiver pair
+    private static final class TypingState {
+        private boolean desired;
+        private boolean sent;
+        private long sentAt;
+        private long lastEventAt;
+        private boolean removed;
+    }
+}
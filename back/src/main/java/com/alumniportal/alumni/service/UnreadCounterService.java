@@ -0,0 +1,253 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.repository.ChatMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process unread counters, per receiver and per conversation. Unread means not yet READ
+ * (SENT or DELIVERED), the same definition the conversations inbox uses.
+ *
+ * A user's counters are loaded from the DB on first read (one indexed query for that user);
+ * after that, chat writes adjust them in memory after commit, so reading a count costs no query.
+ *
+ * A load can race with adjustments: one committed just before the load's snapshot but applied
+ * after it would be counted twice, one applied to the old counters while the load runs would be
+ * lost. Adjustments are therefore counted as started / completed per stripe of user ids; a load
+ * that overlapped any adjustment in its stripe is installed but marked stale. The background task
+ * reloads stale users, re-checks users whose counters are older than reconcile-interval-ms (a few
+ * per tick) and drops users idle for idle-ms, so memory follows the active users.
+ */
+@Service
+@Slf4j
+public class UnreadCounterService {
+
+    private static final int STRIPES = 1024;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate loadTransaction;
+    private final long reconcileIntervalMs;
+    private final long idleMs;
+    private final int reconcileBatch;
+    private final ConcurrentHashMap<Long, UserCounters> counters = new ConcurrentHashMap<>();
+
+    // Adjustments registered / finished (committed or rolled back), by stripe of receiver id
+    private final AtomicLongArray started = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray completed = new AtomicLongArray(STRIPES);
+
+    private ScheduledExecutorService scheduler;
+
+    public UnreadCounterService(ChatMessageRepository chatMessageRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.chat.unread.reconcile-interval-ms:60000}") long reconcileIntervalMs,
+                                @Value("${app.chat.unread.idle-ms:1800000}") long idleMs,
+                                @Value("${app.chat.unread.reconcile-batch:200}") int reconcileBatch) {
+        this.chatMessageRepository = chatMessageRepository;
+        // A fresh snapshot even when called from inside a longer transaction
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.reconcileIntervalMs = Math.max(1000, reconcileIntervalMs);
+        this.idleMs = Math.max(this.reconcileIntervalMs, idleMs);
+        this.reconcileBatch = Math.max(1, reconcileBatch);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-unread-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public long getUnreadCount(Long userId) {
+        return Math.max(0, countersFor(userId).total.sum());
+    }
+
+    public long getUnreadCount(Long userId, String conversationId) {
+        LongAdder adder = countersFor(userId).byConversation.get(conversationId);
+        return adder == null ? 0 : Math.max(0, adder.sum());
+    }
+
+    public Map<String, Long> getUnreadCountsByConversation(Long userId) {
+        Map<String, Long> result = new HashMap<>();
+        countersFor(userId).byConversation.forEach((conversationId, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                result.put(conversationId, count);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Adjusts a receiver's unread count once the surrounding transaction commits
+     * (immediately when there is none). Users that are not tracked yet are skipped:
+     * their first read loads from the DB, which already includes this change.
+     */
+    public void adjust(Long receiverId, String conversationId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        int stripe = stripe(receiverId);
+        started.incrementAndGet(stripe);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(receiverId, conversationId, delta);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    completed.incrementAndGet(stripe);
+                }
+            });
+        } else {
+            try {
+                apply(receiverId, conversationId, delta);
+            } finally {
+                completed.incrementAndGet(stripe);
+            }
+        }
+    }
+
+    private void apply(Long receiverId, String conversationId, long delta) {
+        UserCounters user = counters.get(receiverId);
+        if (user == null) {
+            return;
+        }
+        user.byConversation.computeIfAbsent(conversationId, k -> new LongAdder()).add(delta);
+        user.total.add(delta);
+    }
+
+    private UserCounters countersFor(Long userId) {
+        UserCounters existing = counters.get(userId);
+        if (existing != null) {
+            existing.lastUsed = System.currentTimeMillis();
+            return existing;
+        }
+        return load(userId, null);
+    }
+
+    /** Loads the user's counters and installs them in place of previous (or if absent, when null). */
+    private UserCounters load(Long userId, UserCounters previous) {
+        int stripe = stripe(userId);
+        long startedBefore = started.get(stripe);
+        boolean quiet = startedBefore == completed.get(stripe);
+
+        UserCounters fresh = new UserCounters();
+        List<Object[]> rows = loadTransaction.execute(status -> chatMessageRepository.countUnreadByConversation(userId));
+        for (Object[] row : rows) {
+            fresh.set((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        if (previous == null) {
+            UserCounters raced = counters.putIfAbsent(userId, fresh);
+            if (raced != null) {
+                return raced;
+            }
+        } else if (!counters.replace(userId, previous, fresh)) {
+            UserCounters current = counters.get(userId);
+            return current != null ? current : fresh;
+        }
+        // Checked after installing: an adjustment starting later applies to the new counters
+        if (!quiet || started.get(stripe) != startedBefore) {
+            fresh.stale = true;
+        }
+        return fresh;
+    }
+
+    void reconcile() {
+        if (counters.isEmpty()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            List<Map.Entry<Long, UserCounters>> due = new ArrayList<>();
+            int evicted = 0;
+            for (Map.Entry<Long, UserCounters> entry : counters.entrySet()) {
+                UserCounters user = entry.getValue();
+                if (now - user.lastUsed > idleMs) {
+                    if (counters.remove(entry.getKey(), user)) {
+                        evicted++;
+                    }
+                } else if (user.stale || now - user.loadedAt > reconcileIntervalMs) {
+                    due.add(Map.entry(entry.getKey(), user));
+                }
+            }
+            // Stale users first, then the longest unchecked
+            due.sort(Comparator.comparing((Map.Entry<Long, UserCounters> e) -> !e.getValue().stale)
+                    .thenComparingLong(e -> e.getValue().loadedAt));
+
+            int drifted = 0;
+            int reloaded = 0;
+            for (Map.Entry<Long, UserCounters> entry : due) {
+                if (reloaded == reconcileBatch) {
+                    break;
+                }
+                long before = entry.getValue().total.sum();
+                UserCounters fresh = load(entry.getKey(), entry.getValue());
+                fresh.lastUsed = entry.getValue().lastUsed;
+                reloaded++;
+                if (fresh.total.sum() != before) {
+                    drifted++;
+                }
+            }
+
+            if (drifted > 0 || evicted > 0) {
+                log.info("🔔 Unread counters: {} of {} re-checked users corrected, {} idle users dropped",
+                        drifted, reloaded, evicted);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error reconciling unread counters: {}", e.getMessage(), e);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (Long.hashCode(userId) & 0x7fffffff) % STRIPES;
+    }
+
+    private static final class UserCounters {
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> byConversation = new ConcurrentHashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile long lastUsed = loadedAt;
+        // Loaded while an adjustment was in flight; reloaded by the next reconcile
+        private volatile boolean stale;
+
+        private void set(String conversationId, long count) {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            byConversation.put(conversationId, adder);
+            total.add(count);
+        }
+    }
+}
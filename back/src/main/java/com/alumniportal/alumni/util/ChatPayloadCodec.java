@@ -0,0 +1,44 @@
+package com.alumniportal.alumni.util;
+
+import com.alumniportal.alumni.dto.ChatMessageRequest;
+import com.alumniportal.alumni.dto.TypingRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Shared JSON codec for STOMP chat frames. The {@link ObjectReader} is built once and is
+ * immutable/thread-safe, so each frame is decoded straight from its bytes into the target type
+ * without an intermediate String, Map or per-call reader lookup.
+ */
+@Component
+public class ChatPayloadCodec {
+
+    private final ObjectReader messageReader;
+    private final ObjectReader typingReader;
+    private final ObjectWriter writer;
+
+    public ChatPayloadCodec(ObjectMapper objectMapper) {
+        this.messageReader = objectMapper.readerFor(ChatMessageRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.typingReader = objectMapper.readerFor(TypingRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.writer = objectMapper.writer();
+    }
+
+    public ChatMessageRequest decodeMessage(byte[] payload) throws IOException {
+        return messageReader.readValue(payload);
+    }
+
+    public TypingRequest decodeTyping(byte[] payload) throws IOException {
+        return typingReader.readValue(payload);
+    }
+
+    public byte[] encode(Object payload) throws IOException {
+        return writer.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,67 @@
+package com.alumniportal.alumni.benchmark;
+
+import com.alumniportal.alumni.dto.ChatMessageDTO;
+import com.alumniportal.alumni.dto.ChatMessageRequest;
+import com.alumniportal.alumni.util.ChatPayloadCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old /app/sendMessage decoding (bytes -> String -> Map -> toString/Long.valueOf)
+ * with the typed ObjectReader path. Run with the GC profiler to see allocations per message
+ * (gc.alloc.rate.norm):
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.alumniportal.alumni.benchmark.ChatPayloadDecodeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatPayloadDecodeBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatPayloadCodec codec = new ChatPayloadCodec(objectMapper);
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = "{\"senderId\":15,\"receiverId\":19,\"content\":\"Hi! Are you free for a mentoring call on Friday?\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public ChatMessageDTO mapBased() throws Exception {
+        String payloadString = new String(payload, StandardCharsets.UTF_8);
+        Map<String, Object> payloadMap = objectMapper.readValue(payloadString, Map.class);
+
+        ChatMessageDTO dto = new ChatMessageDTO();
+        dto.setSenderId(Long.valueOf(payloadMap.get("senderId").toString()));
+        dto.setReceiverId(Long.valueOf(payloadMap.get("receiverId").toString()));
+        dto.setContent(payloadMap.get("content").toString());
+        return dto;
+    }
+
+    @Benchmark
+    public ChatMessageRequest typedReader() throws Exception {
+        return codec.decodeMessage(payload);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ChatPayloadDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
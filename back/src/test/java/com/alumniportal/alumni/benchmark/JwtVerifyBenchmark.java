@@ -0,0 +1,88 @@
+package com.alumniportal.alumni.benchmark;
+
+import com.alumniportal.alumni.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in JwtAuthenticationFilter:
+ * the old path (validateToken + getEmailFromToken + getRoleFromToken, each rebuilding the key and
+ * parser and verifying the signature again), one uncached verification, and a cache hit.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.alumniportal.alumni.benchmark.JwtVerifyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "ReplaceThisWithAStrongSecretKey12345";
+
+    private final JwtUtil cached = new JwtUtil(SECRET, 86_400_000L, 10_000);
+    private final JwtUtil uncached = new JwtUtil(SECRET, 86_400_000L, 0);
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        token = cached.generateToken("alumnus@example.edu", "ALUMNI");
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public String threeParses() {
+        if (!oldValidate(token)) {
+            return null;
+        }
+        return oldClaims(token).getSubject() + oldClaims(token).get("role");
+    }
+
+    @Benchmark
+    public String verifyUncached() {
+        JwtUtil.TokenClaims claims = uncached.verify(token).orElseThrow();
+        return claims.subject() + claims.role();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        JwtUtil.TokenClaims claims = cached.verify(token).orElseThrow();
+        return claims.subject() + claims.role();
+    }
+
+    // The pre-cache JwtUtil methods, verbatim apart from the inlined key
+    private static boolean oldValidate(String token) {
+        try {
+            oldClaims(token);
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private static Claims oldClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
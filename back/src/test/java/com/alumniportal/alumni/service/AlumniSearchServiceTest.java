@@ -0,0 +1,132 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.AlumniDirectoryEntry;
+import com.alumniportal.alumni.dto.AlumniSearchPage;
+import com.alumniportal.alumni.entity.Profile;
+import com.alumniportal.alumni.entity.Role;
+import com.alumniportal.alumni.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlumniSearchServiceTest {
+
+    // Fed through onProfileSaved only; the index starts empty and is never loaded
+    private final AlumniSearchService service = new AlumniSearchService(null);
+
+    @BeforeEach
+    void setUp() {
+        save(1, "ALUMNI", "Priya", "Sharma", "Google", "Engineer", "Worked on search at scale");
+        save(2, "ALUMNI", "Rahul", "Verma", "Goodyear", "Analyst", "Mentors students interested in Google");
+        save(3, "ALUMNI", "Anita", "Google", "Infosys", "Engineer", null);
+        save(4, "ALUMNI", "Sharma", "Kumar", "Microsoft", "Manager", null);
+    }
+
+    @Test
+    void tokenizeLowercasesAndSplitsOnPunctuation() {
+        assertThat(AlumniSearchService.tokenize("Senior Engineer, R&D (Google-Cloud)"))
+                .containsExactly("senior", "engineer", "google", "cloud");
+    }
+
+    @Test
+    void tokenizeDropsStopWordsAndSingleLettersButKeepsDigits() {
+        assertThat(AlumniSearchService.tokenize("A head of the R and D team in 5 years"))
+                .containsExactly("head", "team", "5", "years");
+        assertThat(AlumniSearchService.tokenize(null)).isEmpty();
+        assertThat(AlumniSearchService.tokenize("  ,;  ")).isEmpty();
+    }
+
+    @Test
+    void nameMatchOutranksCompanyAndAboutMatches() {
+        // Last name (weight 8) over company (4) over "about" (1)
+        assertThat(userIds(service.search("google", 0, 10))).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        assertThat(userIds(service.search("sharma google", 0, 10))).containsExactly(1L);
+        assertThat(userIds(service.search("sharma infosys", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void onlyTheLastWordMatchesAsAPrefix() {
+        assertThat(userIds(service.search("goo", 0, 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(userIds(service.search("goo engineer", 0, 10))).isEmpty();
+        assertThat(userIds(service.search("engineer goo", 0, 10))).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void exactMatchOutranksPrefixExpansion() {
+        save(5, "ALUMNI", "Ravi", "Goodyear", null, null, null);
+        save(6, "ALUMNI", "Ravi", "Good", null, null, null);
+        assertThat(userIds(service.search("ravi good", 0, 10))).containsExactly(6L, 5L);
+    }
+
+    @Test
+    void equalScoresKeepIndexOrder() {
+        assertThat(userIds(service.search("engineer", 0, 10))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void repeatedQueryWordsCountOnce() {
+        AlumniSearchPage page = service.search("Google google GOOGLE", 0, 10);
+        assertThat(page.getQuery()).isEqualTo("google");
+        assertThat(userIds(page)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void pagesThroughHitsInRankOrder() {
+        AlumniSearchPage first = service.search("google", 0, 2);
+        AlumniSearchPage second = service.search("google", 1, 2);
+        assertThat(userIds(first)).containsExactly(3L, 1L);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(userIds(second)).containsExactly(2L);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getTotalHits()).isEqualTo(3);
+        assertThatThrownBy(() -> service.search("google", -1, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void savedProfilesReplaceTheirOldTerms() {
+        save(4, "ALUMNI", "Sharma", "Kumar", "Google", "Manager", null);
+        assertThat(userIds(service.search("microsoft", 0, 10))).isEmpty();
+        assertThat(userIds(service.search("google", 0, 10))).contains(4L);
+    }
+
+    @Test
+    void nonAlumniAreRemovedAndReturningAlumniComeBack() {
+        save(3, "STUDENT", "Anita", "Google", "Infosys", "Engineer", null);
+        assertThat(userIds(service.search("anita", 0, 10))).isEmpty();
+        assertThat(service.getStats()).containsEntry("alumni", 3);
+
+        save(3, "ALUMNI", "Anita", "Google", "Infosys", "Engineer", null);
+        assertThat(userIds(service.search("google", 0, 10))).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void stopWordOnlyQueryHasNoHits() {
+        AlumniSearchPage page = service.search("the of and", 0, 10);
+        assertThat(page.getEntries()).isEmpty();
+        assertThat(page.getTotalHits()).isZero();
+    }
+
+    private void save(long id, String role, String firstName, String lastName, String company,
+                      String position, String about) {
+        Profile profile = new Profile();
+        profile.setFirstName(firstName);
+        profile.setLastName(lastName);
+        profile.setCurrentCompany(company);
+        profile.setPosition(position);
+        profile.setAbout(about);
+        service.onProfileSaved(User.builder().id(id).email(id + "@alumni.example.edu")
+                .role(Role.builder().name(role).build()).build(), profile);
+    }
+
+    private static List<Long> userIds(AlumniSearchPage page) {
+        return page.getEntries().stream().map(AlumniDirectoryEntry::getUserId).toList();
+    }
+}
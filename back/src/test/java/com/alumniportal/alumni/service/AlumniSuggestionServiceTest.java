@@ -0,0 +1,178 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.Connection.ConnectionStatus;
+import com.alumniportal.alumni.entity.Profile;
+import com.alumniportal.alumni.entity.Role;
+import com.alumniportal.alumni.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The service patches cached lists instead of re-ranking; after every change its suggestions
+ * must equal what a service freshly loaded from the same rows ranks from scratch.
+ */
+class AlumniSuggestionServiceTest {
+
+    // Small enough that most candidates fall below the floor of a cached list
+    private static final int DEPTH = 5;
+    private static final String[] BRANCHES = {"CS", "EE", "ME", null};
+    private static final String[] DEGREES = {"BTech", "MTech", "BSc", null};
+    private static final String[] COMPANIES = {"Acme", "Globex", "Initech", null};
+
+    private final Random random = new Random(42);
+    private final List<Long> students = new ArrayList<>();
+    private final List<Long> alumni = new ArrayList<>();
+    private JdbcTemplate jdbc;
+    private AlumniSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("CREATE TABLE roles (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+        jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, role_id BIGINT)");
+        jdbc.execute("CREATE TABLE profiles (user_id BIGINT PRIMARY KEY, branch VARCHAR(20), degree VARCHAR(20),"
+                + " graduation_year VARCHAR(4), current_company VARCHAR(20))");
+        jdbc.execute("CREATE TABLE connections (student_id BIGINT, alumni_id BIGINT, status VARCHAR(10),"
+                + " PRIMARY KEY (student_id, alumni_id))");
+        jdbc.update("INSERT INTO roles VALUES (1, 'STUDENT'), (2, 'ALUMNI')");
+
+        for (long id = 1; id <= 40; id++) {
+            boolean student = id % 3 == 0;
+            jdbc.update("INSERT INTO users VALUES (?, ?)", id, student ? 1 : 2);
+            insertProfile(id);
+            (student ? students : alumni).add(id);
+        }
+        for (int i = 0; i < 30; i++) {
+            saveConnection(pick(students), pick(alumni), pick(ConnectionStatus.values()), false);
+        }
+
+        service = new AlumniSuggestionService(jdbc, DEPTH, 1000);
+        service.loadModel();
+        // Every student's list cached, so the changes below are patched into them
+        assertMatchesFullRank();
+    }
+
+    @Test
+    void alumniProfileChangesMatchFullRank() {
+        for (int i = 0; i < 200; i++) {
+            saveProfile(pick(alumni), "ALUMNI");
+            assertMatchesFullRank();
+        }
+    }
+
+    @Test
+    void studentProfileChangesMatchFullRank() {
+        for (int i = 0; i < 50; i++) {
+            saveProfile(pick(students), "STUDENT");
+            assertMatchesFullRank();
+        }
+    }
+
+    @Test
+    void connectionChangesMatchFullRank() {
+        for (int i = 0; i < 200; i++) {
+            long studentId = pick(students);
+            long alumniId = pick(alumni);
+            if (random.nextInt(4) == 0) {
+                jdbc.update("DELETE FROM connections WHERE student_id = ? AND alumni_id = ?", studentId, alumniId);
+                service.onConnectionRemoved(studentId, alumniId);
+            } else {
+                saveConnection(studentId, alumniId, pick(ConnectionStatus.values()), true);
+            }
+            assertMatchesFullRank();
+        }
+    }
+
+    @Test
+    void alumnusLeavingAndReturningMatchesFullRank() {
+        long alumniId = pick(alumni);
+        jdbc.update("UPDATE users SET role_id = 1 WHERE id = ?", alumniId);
+        service.onProfileSaved(user(alumniId, "STUDENT"), profile(alumniId));
+        assertMatchesFullRank();
+
+        jdbc.update("UPDATE users SET role_id = 2 WHERE id = ?", alumniId);
+        service.onProfileSaved(user(alumniId, "ALUMNI"), profile(alumniId));
+        assertMatchesFullRank();
+    }
+
+    @Test
+    void savesThatLeaveTheFeaturesAloneDoNotPatch() {
+        long alumniId = pick(alumni);
+        long studentId = pick(students);
+        Map<String, Object> before = service.getStats();
+
+        service.onProfileSaved(user(alumniId, "ALUMNI"), profile(alumniId));
+        service.onProfileSaved(user(studentId, "STUDENT"), profile(studentId));
+
+        Map<String, Object> after = service.getStats();
+        assertThat(after.get("patches")).isEqualTo(before.get("patches"));
+        assertThat(after.get("invalidations")).isEqualTo(before.get("invalidations"));
+        assertMatchesFullRank();
+    }
+
+    private void assertMatchesFullRank() {
+        AlumniSuggestionService fresh = new AlumniSuggestionService(jdbc, DEPTH, 1000);
+        fresh.loadModel();
+        for (long studentId : jdbc.queryForList("SELECT id FROM users WHERE role_id = 1", Long.class)) {
+            for (int limit : new int[]{1, DEPTH}) {
+                assertThat(service.suggest(studentId, limit))
+                        .as("student %d, limit %d", studentId, limit)
+                        .isEqualTo(fresh.suggest(studentId, limit));
+            }
+        }
+    }
+
+    private void saveProfile(long userId, String role) {
+        jdbc.update("DELETE FROM profiles WHERE user_id = ?", userId);
+        insertProfile(userId);
+        service.onProfileSaved(user(userId, role), profile(userId));
+    }
+
+    private void saveConnection(long studentId, long alumniId, ConnectionStatus status, boolean notify) {
+        jdbc.update("MERGE INTO connections KEY (student_id, alumni_id) VALUES (?, ?, ?)",
+                studentId, alumniId, status.name());
+        if (notify) {
+            service.onConnectionSaved(studentId, alumniId, status);
+        }
+    }
+
+    private void insertProfile(long userId) {
+        jdbc.update("INSERT INTO profiles VALUES (?, ?, ?, ?, ?)", userId, pick(BRANCHES), pick(DEGREES),
+                String.valueOf(2010 + random.nextInt(15)), pick(COMPANIES));
+    }
+
+    private Profile profile(long userId) {
+        return jdbc.queryForObject("SELECT branch, degree, graduation_year, current_company FROM profiles"
+                + " WHERE user_id = ?", (rs, n) -> {
+            Profile profile = new Profile();
+            profile.setBranch(rs.getString(1));
+            profile.setDegree(rs.getString(2));
+            profile.setGraduationYear(rs.getString(3));
+            profile.setCurrentCompany(rs.getString(4));
+            return profile;
+        }, userId);
+    }
+
+    private static User user(long id, String role) {
+        return User.builder().id(id).role(Role.builder().name(role).build()).build();
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
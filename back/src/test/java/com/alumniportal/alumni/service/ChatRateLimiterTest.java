@@ -0,0 +1,116 @@
+package com.alumniportal.alumni.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatRateLimiterTest {
+
+    private static final String USER = "42";
+    private static final String SEND = "/app/sendMessage";
+    private static final String TYPING = "/app/typing";
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+    // Default 10/s with a burst of 20; typing 1/s with a burst of 2
+    private final ChatRateLimiter limiter = new ChatRateLimiter(true, 10, 20, TYPING + ":1:2", nanos::get);
+
+    @Test
+    void allowsTheBurstThenRefuses() {
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(20);
+        assertThat(limiter.getThrottledCount(USER)).isEqualTo(30);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        acquired(USER, SEND, 20);
+
+        advanceMillis(99);
+        assertThat(acquired(USER, SEND, 5)).isZero();
+        advanceMillis(1);
+        assertThat(acquired(USER, SEND, 5)).isEqualTo(1);
+        advanceMillis(500);
+        assertThat(acquired(USER, SEND, 10)).isEqualTo(5);
+
+        // Idle long enough to refill completely, and no further
+        advanceMillis(60_000);
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(20);
+    }
+
+    @Test
+    void configuredDestinationsHaveTheirOwnBucket() {
+        assertThat(acquired(USER, TYPING, 5)).isEqualTo(2);
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(20);
+        advanceMillis(1_000);
+        assertThat(acquired(USER, TYPING, 5)).isEqualTo(1);
+    }
+
+    @Test
+    void unconfiguredDestinationsShareTheDefaultBucket() {
+        assertThat(acquired(USER, "/app/a", 10)).isEqualTo(10);
+        assertThat(acquired(USER, "/app/b", 10)).isEqualTo(10);
+        assertThat(acquired(USER, "/app/c", 10)).isZero();
+        assertThat(acquired(USER, null, 10)).isZero();
+    }
+
+    @Test
+    void usersDoNotShareBuckets() {
+        acquired(USER, SEND, 20);
+        assertThat(acquired("43", SEND, 50)).isEqualTo(20);
+        assertThat(limiter.getThrottledCount(USER)).isZero();
+    }
+
+    @Test
+    void noticesAreLimitedSeparatelyFromFrames() {
+        acquired(USER, SEND, 50);
+        assertThat(limiter.tryAcquireNotice(USER)).isTrue();
+        assertThat(limiter.tryAcquireNotice(USER)).isFalse();
+        advanceMillis(999);
+        assertThat(limiter.tryAcquireNotice(USER)).isFalse();
+        advanceMillis(1);
+        assertThat(limiter.tryAcquireNotice(USER)).isTrue();
+        // Taking notices left the frame bucket where it was: 1 s refilled 10 tokens
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(10);
+    }
+
+    @Test
+    void survivesTheNanoTimeWrap() {
+        nanos.set(Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(20);
+        advanceMillis(1_000);
+        assertThat(acquired(USER, SEND, 50)).isEqualTo(10);
+    }
+
+    @Test
+    void disabledAllowsEverything() {
+        ChatRateLimiter disabled = new ChatRateLimiter(false, 10, 20, "", nanos::get);
+        for (int i = 0; i < 100; i++) {
+            assertThat(disabled.tryAcquire(USER, SEND)).isTrue();
+            assertThat(disabled.tryAcquireNotice(USER)).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsMalformedDestinationLimits() {
+        assertThatThrownBy(() -> new ChatRateLimiter(true, 10, 20, "/app/typing:1", nanos::get))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("/app/typing:1");
+    }
+
+    private int acquired(String userId, String destination, int frames) {
+        int allowed = 0;
+        for (int i = 0; i < frames; i++) {
+            if (limiter.tryAcquire(userId, destination)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,134 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatSegmentStoreTest {
+
+    private static final String CONVERSATION = "3_50";
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        ChatSegmentStore store = new ChatSegmentStore(root, 4);
+        ChatMessage read = message(1, 1, "seen ✓ — ok");
+        read.setStatus(ChatMessage.MessageStatus.READ);
+        read.setDeliveredAt(T0.plusSeconds(5));
+        read.setReadAt(T0.plusMinutes(2));
+        // Longer than DataOutputStream.writeUTF allows
+        ChatMessage large = message(2, 2, "x".repeat(70_000));
+
+        store.append(CONVERSATION, List.of(read, large));
+
+        assertThat(store.readAfter(CONVERSATION, 0, 10))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(read, large);
+    }
+
+    @Test
+    void readsAfterASeqAcrossBlocksAndSegments() throws IOException {
+        ChatSegmentStore store = new ChatSegmentStore(root, 3);
+        store.append(CONVERSATION, messages(1, 10));
+        store.append(CONVERSATION, messages(11, 25));
+
+        assertThat(seqs(store.readAfter(CONVERSATION, 0, 4))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(seqs(store.readAfter(CONVERSATION, 8, 5))).containsExactly(9L, 10L, 11L, 12L, 13L);
+        assertThat(seqs(store.readAfter(CONVERSATION, 23, 10))).containsExactly(24L, 25L);
+        assertThat(store.readAfter(CONVERSATION, 25, 10)).isEmpty();
+    }
+
+    @Test
+    void readsTheNewestBeforeASeqInSeqOrder() throws IOException {
+        ChatSegmentStore store = new ChatSegmentStore(root, 3);
+        store.append(CONVERSATION, messages(1, 10));
+        store.append(CONVERSATION, messages(11, 25));
+
+        assertThat(seqs(store.readBefore(CONVERSATION, 13, 4))).containsExactly(9L, 10L, 11L, 12L);
+        assertThat(seqs(store.readBefore(CONVERSATION, 100, 2))).containsExactly(24L, 25L);
+        assertThat(seqs(store.readBefore(CONVERSATION, 3, 10))).containsExactly(1L, 2L);
+        assertThat(store.readBefore(CONVERSATION, 1, 10)).isEmpty();
+    }
+
+    @Test
+    void findsMessagesById() throws IOException {
+        ChatSegmentStore store = new ChatSegmentStore(root, 3);
+        store.append(CONVERSATION, messages(1, 10));
+        store.append(CONVERSATION, messages(11, 20));
+
+        assertThat(store.findById(CONVERSATION, 1015)).get().extracting(ChatMessage::getSeq).isEqualTo(15L);
+        assertThat(store.findById(CONVERSATION, 1001)).get().extracting(ChatMessage::getContent)
+                .isEqualTo("message 1");
+        assertThat(store.findById(CONVERSATION, 999)).isEmpty();
+        assertThat(store.findById("5_50", 1001)).isEmpty();
+    }
+
+    @Test
+    void tracksTheArchivedSeqAndRefusesOverlaps() throws IOException {
+        ChatSegmentStore store = new ChatSegmentStore(root, 3);
+        assertThat(store.archivedThroughSeq(CONVERSATION)).isZero();
+
+        store.append(CONVERSATION, messages(1, 10));
+        assertThat(store.archivedThroughSeq(CONVERSATION)).isEqualTo(10);
+        assertThatThrownBy(() -> store.append(CONVERSATION, messages(10, 12)))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Gaps are fine: seqs of deleted messages never come back
+        store.append(CONVERSATION, messages(15, 16));
+        assertThat(store.archivedThroughSeq(CONVERSATION)).isEqualTo(16);
+    }
+
+    @Test
+    void aNewStoreFindsTheSegmentsOnDisk() throws IOException {
+        ChatSegmentStore writer = new ChatSegmentStore(root, 3);
+        writer.append(CONVERSATION, messages(1, 10));
+        writer.append(CONVERSATION, messages(11, 12));
+
+        ChatSegmentStore reader = new ChatSegmentStore(root, 3);
+        assertThat(reader.archivedThroughSeq(CONVERSATION)).isEqualTo(12);
+        assertThat(seqs(reader.readAfter(CONVERSATION, 9, 10))).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    void rejectsConversationIdsThatAreNotPaths() {
+        ChatSegmentStore store = new ChatSegmentStore(root, 3);
+        assertThatThrownBy(() -> store.readAfter("../3_50", 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.append("3_50/..", messages(1, 2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<ChatMessage> messages(long firstSeq, long lastSeq) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (long seq = firstSeq; seq <= lastSeq; seq++) {
+            messages.add(message(1000 + seq, seq, "message " + seq));
+        }
+        return messages;
+    }
+
+    private static ChatMessage message(long id, long seq, String content) {
+        return ChatMessage.builder()
+                .id(id)
+                .seq(seq)
+                .senderId(seq % 2 == 0 ? 3L : 50L)
+                .receiverId(seq % 2 == 0 ? 50L : 3L)
+                .conversationId(CONVERSATION)
+                .content(content)
+                .timestamp(T0.plusSeconds(seq))
+                .build();
+    }
+
+    private static List<Long> seqs(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getSeq).toList();
+    }
+}
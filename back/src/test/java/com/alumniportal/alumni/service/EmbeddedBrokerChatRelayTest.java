@@ -0,0 +1,183 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.service.ChatRelay.RelayFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two relay nodes and the broker, all on loopback sockets in this JVM, as two backend processes
+ * on one machine would use them.
+ */
+class EmbeddedBrokerChatRelayTest {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+    private LocalRelayBroker broker;
+    private Node a;
+    private Node b;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        broker = new LocalRelayBroker(0, QUEUE_CAPACITY);
+        a = node("node-a");
+        b = node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+        broker.close();
+    }
+
+    @Test
+    void deliversOnlyToTheNodesHoldingTheUser() {
+        a.relay.register("7");
+        await(() -> b.relay.isOnline("7"));
+
+        b.relay.publish(frame("7", "hello"));
+        b.relay.publish(frame("8", "nobody holds 8"));
+        await(() -> a.delivered.size() == 1);
+
+        RelayFrame delivered = a.delivered.get(0);
+        assertThat(delivered.userId()).isEqualTo("7");
+        assertThat(delivered.destination()).isEqualTo("/queue/messages");
+        assertThat(new String(delivered.payload(), StandardCharsets.UTF_8)).isEqualTo("hello");
+        // Not echoed back to the publisher, and nothing for the unregistered user
+        assertThat(b.delivered).isEmpty();
+        assertThat(a.delivered).hasSize(1);
+    }
+
+    @Test
+    void propagatesOnlineAndOffline() {
+        a.relay.register("7");
+        await(() -> b.relay.isOnline("7"));
+        assertThat(a.online).containsExactly("7");
+        assertThat(b.online).containsExactly("7");
+
+        // A second node holding the user keeps it online and fires no second ONLINE
+        b.relay.register("7");
+        await(() -> {
+            a.relay.publish(frame("7", "are you there"));
+            return !b.delivered.isEmpty();
+        });
+        a.relay.unregister("7");
+        // Frames from one node are handled in order, so this ONLINE follows any OFFLINE for 7
+        a.relay.register("8");
+        await(() -> a.online.contains("8"));
+        assertThat(a.relay.isOnline("7")).isTrue();
+
+        b.relay.unregister("7");
+        await(() -> !a.relay.isOnline("7"));
+        assertThat(a.online).containsExactly("7", "8");
+        assertThat(b.online).containsExactly("7", "8");
+    }
+
+    @Test
+    void nodesThatDisconnectGoOffline() throws IOException {
+        a.relay.register("7");
+        await(() -> b.relay.isOnline("7"));
+
+        a.relay.stop();
+        await(() -> !b.relay.isOnline("7"));
+    }
+
+    @Test
+    void replaysRegistrationsAfterTheBrokerRestarts() throws IOException {
+        a.relay.register("7");
+        b.relay.register("9");
+        await(() -> b.relay.isOnline("7") && a.relay.isOnline("9"));
+
+        int port = broker.port();
+        broker.close();
+        await(() -> !b.relay.isOnline("7"));
+        // Registered while disconnected: only the replay can tell the broker
+        a.relay.register("11");
+        broker = new LocalRelayBroker(port, QUEUE_CAPACITY);
+
+        await(() -> b.relay.isOnline("7") && b.relay.isOnline("11") && a.relay.isOnline("9"));
+        b.relay.publish(frame("11", "after restart"));
+        await(() -> a.delivered.size() == 1);
+    }
+
+    @Test
+    void aStalledNodeIsDisconnectedWithoutHoldingUpOthers() throws IOException {
+        a.relay.register("7");
+        // A node that registers a user and then never reads its socket
+        Socket stalled = new Socket("localhost", broker.port());
+        closeables.add(stalled);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stalled.getOutputStream()));
+        out.write(LocalRelayBroker.frame(LocalRelayBroker.HELLO, "node-stalled"));
+        out.write(LocalRelayBroker.frame(LocalRelayBroker.REGISTER, "7"));
+        out.flush();
+        await(() -> a.relay.isOnline("7") && b.relay.isOnline("7"));
+
+        // Far more than the socket buffers and the queue hold, paced so the healthy node keeps up
+        byte[] large = new byte[64 * 1024];
+        for (int batch = 1; batch <= 50; batch++) {
+            for (int i = 0; i < 10; i++) {
+                b.relay.publish(new RelayFrame("7", "/queue/messages", large));
+            }
+            int expected = batch * 10;
+            await(() -> a.delivered.size() == expected);
+        }
+
+        // The broker closed the stalled node's socket: reading it ends in EOF
+        stalled.setSoTimeout(10_000);
+        InputStream in = stalled.getInputStream();
+        byte[] buffer = new byte[64 * 1024];
+        while (in.read(buffer) >= 0) {
+            // drain what was sent before the disconnect
+        }
+        b.relay.publish(frame("7", "after"));
+        await(() -> a.delivered.size() == 501);
+    }
+
+    private Node node(String nodeId) throws IOException {
+        Node node = new Node(new EmbeddedBrokerChatRelay(nodeId, "localhost", broker.port(), false, QUEUE_CAPACITY));
+        node.relay.start(node.delivered::add, node.online::add);
+        closeables.add(node.relay::stop);
+        return node;
+    }
+
+    private static RelayFrame frame(String userId, String text) {
+        return new RelayFrame(userId, "/queue/messages", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10 s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private record Node(EmbeddedBrokerChatRelay relay, List<RelayFrame> delivered, List<String> online) {
+        Node(EmbeddedBrokerChatRelay relay) {
+            this(relay, new CopyOnWriteArrayList<>(), new CopyOnWriteArrayList<>());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.alumniportal.alumni.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleServiceTest {
+
+    private static final long WINDOW_MS = 10_000;
+    private static final String IP = "203.0.113.7";
+    private static final String OTHER_IP = "198.51.100.2";
+    private static final String EMAIL = "alumnus@example.edu";
+
+    // Starts on a window boundary
+    private final AtomicLong now = new AtomicLong(1_000 * WINDOW_MS);
+    private final LoginThrottleService throttle = new LoginThrottleService(WINDOW_MS, 3, 5, now::get);
+
+    @Test
+    void refusesLoginsOverTheIpBudgetWithoutCountingThem() {
+        assertThat(allowedLogins(IP, 20)).isEqualTo(5);
+
+        now.addAndGet(WINDOW_MS / 4);
+        LoginThrottleService.Decision refused = throttle.tryAcquire(EMAIL, IP);
+        assertThat(refused.allowed()).isFalse();
+        // 7.5 s left in the window
+        assertThat(refused.retryAfterSeconds()).isEqualTo(8);
+        assertThat(throttle.tryAcquire(EMAIL, OTHER_IP).allowed()).isTrue();
+    }
+
+    @Test
+    void previousWindowCountsByItsRemainingOverlap() {
+        allowedLogins(IP, 5);
+
+        now.addAndGet(WINDOW_MS);
+        assertThat(allowedLogins(IP, 10)).isZero();
+
+        // Half of the previous window's 5 still counts: 2.5 + 0, 1, 2 are under 5
+        now.addAndGet(WINDOW_MS / 2);
+        assertThat(allowedLogins(IP, 10)).isEqualTo(3);
+
+        // Previous window now holds those 3, weighted 1.0 at the boundary
+        now.addAndGet(WINDOW_MS / 2);
+        assertThat(allowedLogins(IP, 10)).isEqualTo(2);
+
+        now.addAndGet(2 * WINDOW_MS);
+        assertThat(allowedLogins(IP, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void failuresCountPerEmailAndIp() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquire(EMAIL, IP).allowed()).isTrue();
+            throttle.onFailure(" Alumnus@Example.EDU ", IP);
+        }
+        assertThat(throttle.tryAcquire(EMAIL, IP).allowed()).isFalse();
+        // The owner, elsewhere, is not locked out
+        assertThat(throttle.tryAcquire(EMAIL, OTHER_IP).allowed()).isTrue();
+        assertThat(throttle.tryAcquire("someone@example.edu", IP).allowed()).isTrue();
+    }
+
+    @Test
+    void successClearsFailuresButNotTheIpCount() {
+        throttle.onFailure(EMAIL, IP);
+        throttle.onFailure(EMAIL, IP);
+        throttle.onSuccess(EMAIL, IP);
+        throttle.onFailure(EMAIL, IP);
+        throttle.onFailure(EMAIL, IP);
+        assertThat(throttle.tryAcquire(EMAIL, IP).allowed()).isTrue();
+
+        assertThat(allowedLogins(IP, 10)).isEqualTo(4);
+    }
+
+    @Test
+    void lookupsHaveTheirOwnBudget() {
+        int lookups = 0;
+        for (int i = 0; i < 10; i++) {
+            if (throttle.tryAcquireLookup(IP).allowed()) {
+                lookups++;
+            }
+        }
+        assertThat(lookups).isEqualTo(5);
+        assertThat(allowedLogins(IP, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void countsSaturateWithoutCorruptingTheWindow() {
+        LoginThrottleService wide = new LoginThrottleService(WINDOW_MS, 1_000_000, 5, now::get);
+        // Far more failures than the 16-bit field holds
+        for (int i = 0; i < 70_000; i++) {
+            wide.onFailure(EMAIL, IP);
+        }
+        assertThat(wide.tryAcquire(EMAIL, IP).allowed()).isFalse();
+
+        // Rolled into the previous-window field intact
+        now.addAndGet(WINDOW_MS);
+        assertThat(wide.tryAcquire(EMAIL, IP).allowed()).isFalse();
+
+        now.addAndGet(WINDOW_MS);
+        assertThat(wide.tryAcquire(EMAIL, IP).allowed()).isTrue();
+    }
+
+    @Test
+    void tracksAllowedAndThrottledPerWindow() {
+        allowedLogins(IP, 7);
+        now.addAndGet(WINDOW_MS);
+        allowedLogins(OTHER_IP, 1);
+
+        assertThat(throttle.getStats()).extractingByKey("previousWindow")
+                .isEqualTo(Map.of("allowed", 5L, "throttled", 2L));
+        assertThat(throttle.getStats()).extractingByKey("currentWindow")
+                .isEqualTo(Map.of("allowed", 1L, "throttled", 0L));
+    }
+
+    private int allowedLogins(String ip, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (throttle.tryAcquire(EMAIL, ip).allowed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,131 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.entity.ChatMessage;
+import com.alumniportal.alumni.repository.ChatMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OfflineDeliveryQueueTest {
+
+    private static final long TTL_MS = 3_600_000;
+
+    private final ChatFanoutService fanout = mock(ChatFanoutService.class);
+    private final ChatMessageRepository repository = mock(ChatMessageRepository.class);
+    private final ChatDeliveryTracker tracker = mock(ChatDeliveryTracker.class);
+    private final OfflineDeliveryQueue queue = new OfflineDeliveryQueue(fanout, repository, tracker, 3, 4, TTL_MS, 1000);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAllById(any())).thenAnswer(call -> {
+            Iterable<Long> ids = call.getArgument(0);
+            List<ChatMessage> messages = new ArrayList<>();
+            ids.forEach(id -> messages.add(sent(id)));
+            return messages;
+        });
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Test
+    void keepsOnlyTheNewestIdsPerUser() {
+        for (long id = 1; id <= 5; id++) {
+            queue.enqueue(7L, id);
+        }
+        assertThat(queue.getStats()).containsEntry("dropped", 2L).containsEntry("usersWithPending", 1);
+    }
+
+    @Test
+    void dropsAFlushedBatchNobodyAcknowledges() {
+        queue.enqueue(7L, 1L);
+        queue.enqueue(7L, 2L);
+        when(fanout.isOnline("7")).thenReturn(true);
+        queue.enqueue(7L, 3L);
+
+        verify(fanout, timeout(2000)).sendToUser(eq("7"), eq(OfflineDeliveryQueue.PENDING_DESTINATION), any(Object.class));
+        await(() -> queue.getStats().get("usersWithPending").equals(0));
+        assertThat(queue.getStats()).containsEntry("droppedUnacknowledged", 3L);
+    }
+
+    @Test
+    void acknowledgedIdsLeaveTheQueue() {
+        when(repository.findSentMessagesByIdIn(any())).thenAnswer(call -> {
+            Collection<Long> ids = call.getArgument(0);
+            return ids.stream().map(OfflineDeliveryQueueTest::sent).toList();
+        });
+        when(tracker.recordDelivered(any(), eq(7L))).thenReturn(true);
+        queue.enqueue(7L, 1L);
+        queue.enqueue(7L, 2L);
+
+        assertThat(queue.acknowledge(7L, List.of(1L))).isEqualTo(1);
+        assertThat(queue.getStats()).containsEntry("usersWithPending", 1);
+        assertThat(queue.acknowledge(7L, List.of(2L))).isEqualTo(1);
+        assertThat(queue.getStats()).containsEntry("usersWithPending", 0);
+    }
+
+    @Test
+    void expiresUsersWithNoNewIdsWithinTheTtl() {
+        queue.enqueue(7L, 1L);
+        long now = System.currentTimeMillis();
+
+        queue.sweep(now + TTL_MS / 2);
+        assertThat(queue.getStats()).containsEntry("usersWithPending", 1);
+        queue.sweep(now + TTL_MS + 1000);
+        assertThat(queue.getStats()).containsEntry("usersWithPending", 0).containsEntry("expiredUsers", 1L);
+    }
+
+    @Test
+    void evictsTheOldestUsersPastTheGlobalCap() throws InterruptedException {
+        for (long user = 1; user <= 6; user++) {
+            queue.enqueue(user, 100 + user);
+            Thread.sleep(2);
+        }
+        queue.sweep(System.currentTimeMillis());
+        assertThat((Integer) queue.getStats().get("usersWithPending")).isLessThanOrEqualTo(4);
+
+        // Flushes run in order, so by the time the newest user is flushed the oldest would have been too
+        queue.onUserOnline(new ChatUserOnlineEvent("1"));
+        queue.onUserOnline(new ChatUserOnlineEvent("6"));
+        verify(fanout, timeout(2000)).sendToUser(eq("6"), eq(OfflineDeliveryQueue.PENDING_DESTINATION), any(Object.class));
+        verify(fanout, never()).sendToUser(eq("1"), anyString(), any(Object.class));
+    }
+
+    private static ChatMessage sent(Long id) {
+        return ChatMessage.builder().id(id).senderId(1L).receiverId(7L).content("m" + id)
+                .conversationId("1_7").status(ChatMessage.MessageStatus.SENT).build();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10 s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
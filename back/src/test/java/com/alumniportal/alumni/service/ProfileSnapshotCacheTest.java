@@ -0,0 +1,145 @@
+package com.alumniportal.alumni.service;
+
+import com.alumniportal.alumni.dto.ProfileSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileSnapshotCacheTest {
+
+    private final ProfileSnapshotCache cache = new ProfileSnapshotCache(1 << 20, 1 << 16, 600_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesHitsWithoutLoading() {
+        assertThat(cache.getByUserId(1L, () -> load(snapshot(1, "Asha")))).contains(snapshot(1, "Asha"));
+        assertThat(cache.getByUserId(1L, () -> load(snapshot(1, "stale")))).contains(snapshot(1, "Asha"));
+        assertThat(cache.getByEmail(" User1@Example.edu", () -> load(snapshot(1, "stale"))))
+                .contains(snapshot(1, "Asha"));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadOverlappingAWriteIsReturnedButNotCached() {
+        // The write lands while the (slow) read still holds the old row
+        Optional<ProfileSnapshot> read = cache.getByUserId(1L, () -> {
+            cache.completeUpdate(cache.beginUpdate(), snapshot(1, "new"));
+            return load(snapshot(1, "old"));
+        });
+
+        assertThat(read).contains(snapshot(1, "old"));
+        assertThat(cache.getByUserId(1L, () -> load(snapshot(1, "reloaded")))).contains(snapshot(1, "new"));
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        cache.getByUserId(1L, () -> {
+            cache.invalidate(1L);
+            return load(snapshot(1, "old"));
+        });
+
+        assertThat(cache.getByUserId(1L, () -> load(snapshot(1, "reloaded")))).contains(snapshot(1, "reloaded"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void racingWritesDropTheEntry() {
+        cache.getByUserId(1L, () -> load(snapshot(1, "first")));
+        long slow = cache.beginUpdate();
+        long fast = cache.beginUpdate();
+        cache.completeUpdate(fast, snapshot(1, "fast"));
+        // Saved first or last, the slow write can't tell which of the two the DB kept
+        cache.completeUpdate(slow, snapshot(1, "slow"));
+
+        assertThat(cache.getByUserId(1L, () -> load(snapshot(1, "from db")))).contains(snapshot(1, "from db"));
+        assertThat(cache.getStats()).containsEntry("invalidations", 1L);
+    }
+
+    @Test
+    void writeStoresTheSavedSnapshotAndMovesTheEmail() {
+        cache.getByUserId(1L, () -> load(snapshot(1, "Asha")));
+        ProfileSnapshot renamed = new ProfileSnapshot(1L, "asha@new.example.edu", "Asha", null, null, null,
+                null, null, null, null, null, null, null, null);
+        cache.completeUpdate(cache.beginUpdate(), renamed);
+
+        assertThat(cache.getByEmail("asha@new.example.edu", () -> load(snapshot(1, "stale")))).contains(renamed);
+        assertThat(cache.getByEmail("user1@example.edu", Optional::empty)).isEmpty();
+    }
+
+    @Test
+    void batchLoadsOnlyTheMissesInOneCall() {
+        cache.getByUserId(2L, () -> load(snapshot(2, "cached")));
+        List<Collection<Long>> calls = new ArrayList<>();
+
+        var found = cache.getAllByUserId(List.of(3L, 2L, 1L, 4L), missing -> {
+            calls.add(List.copyOf(missing));
+            // No profile for 4
+            return List.of(snapshot(1, "one"), snapshot(3, "three"));
+        });
+
+        assertThat(calls).containsExactly(List.of(3L, 1L, 4L));
+        assertThat(found.keySet()).containsExactly(3L, 2L, 1L);
+        assertThat(found.get(2L)).isEqualTo(snapshot(2, "cached"));
+        assertThat(cache.getByUserId(3L, () -> load(snapshot(3, "stale")))).contains(snapshot(3, "three"));
+    }
+
+    @Test
+    void batchLoadOverlappingAWriteIsNotCached() {
+        var found = cache.getAllByUserId(List.of(1L, 2L), missing -> {
+            cache.invalidate(1L);
+            return List.of(snapshot(1, "old"), snapshot(2, "two"));
+        });
+
+        assertThat(found).containsValues(snapshot(1, "old"), snapshot(2, "two"));
+        assertThat(cache.getStats()).containsEntry("entries", 0);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPastMaxBytes() {
+        // Each snapshot weighs about 430 bytes: two fit, a third goes over
+        ProfileSnapshotCache small = new ProfileSnapshotCache(1024, 1024, 600_000);
+        small.getByUserId(1L, () -> load(large(1)));
+        small.getByUserId(2L, () -> load(large(2)));
+        small.getByUserId(1L, () -> load(large(1)));
+        small.getByUserId(3L, () -> load(large(3)));
+
+        int before = loads.get();
+        small.getByUserId(1L, () -> load(large(1)));
+        small.getByUserId(3L, () -> load(large(3)));
+        assertThat(loads).hasValue(before);
+        small.getByUserId(2L, () -> load(large(2)));
+        assertThat(loads).hasValue(before + 1);
+    }
+
+    @Test
+    void oversizedSnapshotsAreNotCached() {
+        ProfileSnapshot photo = new ProfileSnapshot(1L, "user1@example.edu", null, null, null, null, null,
+                null, "x".repeat(40_000), null, null, null, null, null);
+        cache.getByUserId(1L, () -> load(photo));
+        cache.getByUserId(1L, () -> load(photo));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getStats()).containsEntry("oversizedSkipped", 2L);
+    }
+
+    private Optional<ProfileSnapshot> load(ProfileSnapshot snapshot) {
+        loads.incrementAndGet();
+        return Optional.of(snapshot);
+    }
+
+    private static ProfileSnapshot snapshot(long userId, String firstName) {
+        return new ProfileSnapshot(userId, "user" + userId + "@example.edu", firstName, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+
+    private static ProfileSnapshot large(long userId) {
+        return new ProfileSnapshot(userId, "user" + userId + "@example.edu", null, null, null, null, null,
+                "a".repeat(100), null, null, null, null, null, null);
+    }
+}